@@ -0,0 +1,68 @@
+import pathfinding.bench.Harness;
+import pathfinding.bench.SearchAlgorithm;
+
+import java.util.Arrays;
+
+/** {@link Harness} implementation that calls the default-package sources directly. */
+public class CoreHarness implements Harness {
+    // SearchAlgorithm constants are named after the core Algorithm they benchmark.
+    private static final Algorithm[] ALGORITHMS = Arrays.stream(SearchAlgorithm.values())
+            .map(a -> Algorithm.valueOf(a.name()))
+            .toArray(Algorithm[]::new);
+
+    @Override
+    public Object newGrid(int rows, int cols) {
+        return new CompactGrid(rows, cols);
+    }
+
+    @Override
+    public void setWall(Object grid, int row, int col, boolean wall) {
+        ((CompactGrid) grid).setWall(row, col, wall);
+    }
+
+    @Override
+    public void setWall(Object grid, int cell, boolean wall) {
+        ((CompactGrid) grid).setWall(cell, wall);
+    }
+
+    @Override
+    public void setCost(Object grid, int row, int col, int cost) {
+        ((CompactGrid) grid).setCost(row, col, cost);
+    }
+
+    @Override
+    public int index(Object grid, int row, int col) {
+        return ((CompactGrid) grid).index(row, col);
+    }
+
+    @Override
+    public void generateMaze(Object grid, String style, long seed) {
+        MazeGenerator.generate((CompactGrid) grid, MazeGenerator.Style.valueOf(style), seed);
+    }
+
+    @Override
+    public Object newContext(Object grid) {
+        return new SearchContext(((CompactGrid) grid).size());
+    }
+
+    @Override
+    public int search(SearchAlgorithm algorithm, Object grid, int start, int end, Object context) {
+        return ALGORITHMS[algorithm.ordinal()].search((CompactGrid) grid, start, end, (SearchContext) context,
+                SearchListener.NONE);
+    }
+
+    @Override
+    public Object newPlanner(Object grid, int start, int end) {
+        return new IncrementalPlanner((CompactGrid) grid, start, end);
+    }
+
+    @Override
+    public int plan(Object planner) {
+        return ((IncrementalPlanner) planner).plan(SearchListener.NONE);
+    }
+
+    @Override
+    public int[] plannedPath(Object planner) {
+        return ((IncrementalPlanner) planner).path();
+    }
+}
@@ -0,0 +1,18 @@
+package pathfinding.bench;
+
+/** Parses the {@code WIDTHxHEIGHT} strings used as benchmark parameters. */
+final class GridSize {
+    final int cols;
+    final int rows;
+
+    private GridSize(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+    }
+
+    static GridSize parse(String size) {
+        int x = size.indexOf('x');
+        if (x < 0) throw new IllegalArgumentException("Expected WIDTHxHEIGHT, got " + size);
+        return new GridSize(Integer.parseInt(size.substring(0, x)), Integer.parseInt(size.substring(x + 1)));
+    }
+}
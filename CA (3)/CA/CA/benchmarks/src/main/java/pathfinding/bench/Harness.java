@@ -0,0 +1,45 @@
+package pathfinding.bench;
+
+/**
+ * Bridge to the pathfinding sources. Those classes live in the default package,
+ * which code in a named package cannot import, while JMH only accepts
+ * benchmarks in a named package. The implementation, {@code CoreHarness},
+ * sits in the default package of this module and is loaded once by name.
+ * Grids and search contexts are passed around as opaque objects.
+ */
+public interface Harness {
+    Object newGrid(int rows, int cols);
+
+    void setWall(Object grid, int row, int col, boolean wall);
+
+    void setWall(Object grid, int cell, boolean wall);
+
+    /** Sets the terrain cost of stepping into a cell, from 1 up. */
+    void setCost(Object grid, int row, int col, int cost);
+
+    int index(Object grid, int row, int col);
+
+    /** Replaces the walls of {@code grid} with a maze of the named {@code MazeGenerator} style. */
+    void generateMaze(Object grid, String style, long seed);
+
+    Object newContext(Object grid);
+
+    /** Runs one headless search and returns the number of expanded nodes. */
+    int search(SearchAlgorithm algorithm, Object grid, int start, int end, Object context);
+
+    /** Creates a D* Lite planner that follows wall changes on {@code grid}. */
+    Object newPlanner(Object grid, int start, int end);
+
+    /** Replans after wall changes and returns the number of cells expanded. */
+    int plan(Object planner);
+
+    int[] plannedPath(Object planner);
+
+    static Harness load() {
+        try {
+            return (Harness) Class.forName("CoreHarness").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("CoreHarness is missing from the benchmark jar", e);
+        }
+    }
+}
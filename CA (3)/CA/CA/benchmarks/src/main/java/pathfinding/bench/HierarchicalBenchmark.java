@@ -0,0 +1,64 @@
+package pathfinding.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HPA* against flat A* on large maps. {@code query} is one corner-to-corner
+ * search; {@code editAndQuery} first toggles a wall in the middle of the map,
+ * so for HPA* it also covers rebuilding the touched clusters. The cluster
+ * graph is built once during setup, outside the measurement.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class HierarchicalBenchmark {
+
+    @Param({"1024x1024", "4096x4096"})
+    public String size;
+
+    @Param
+    public Layout layout;
+
+    @Param({"ASTAR_MANHATTAN", "HPA_STAR"})
+    public SearchAlgorithm algorithm;
+
+    @Param("42")
+    public long seed;
+
+    private Harness harness;
+    private Object grid;
+    private Object context;
+    private int start;
+    private int end;
+    private int toggled;
+    private boolean wall;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GridSize gridSize = GridSize.parse(size);
+        harness = Harness.load();
+        grid = layout.build(harness, gridSize.rows, gridSize.cols, seed);
+        context = harness.newContext(grid);
+        start = harness.index(grid, 1, 1);
+        end = harness.index(grid, gridSize.rows - 2, gridSize.cols - 2);
+        toggled = harness.index(grid, gridSize.rows / 2, gridSize.cols / 2 + 1);
+        harness.search(algorithm, grid, start, end, context);
+    }
+
+    @Benchmark
+    public int query() {
+        return harness.search(algorithm, grid, start, end, context);
+    }
+
+    @Benchmark
+    public int editAndQuery() {
+        wall = !wall;
+        harness.setWall(grid, toggled, wall);
+        return harness.search(algorithm, grid, start, end, context);
+    }
+}
@@ -0,0 +1,35 @@
+package pathfinding.bench;
+
+/**
+ * Benchmark map layouts, built by the core {@code MazeGenerator} from a seed,
+ * so the same seed always produces the same map on any machine and thread count.
+ */
+public enum Layout {
+    /** No walls at all. */
+    OPEN(null),
+
+    /** Each cell is a wall with probability 1/4, like the visualizer's random maze. */
+    RANDOM_25("RANDOM"),
+
+    /** Bordered recursive division with three gaps per wall. */
+    RECURSIVE_DIVISION("RECURSIVE_DIVISION");
+
+    // Name of the MazeGenerator style, or null for no walls.
+    private final String style;
+
+    Layout(String style) {
+        this.style = style;
+    }
+
+    /**
+     * Builds a {@code rows x cols} grid with this layout. The corner cells just
+     * inside the border are always left open so they can serve as start and end.
+     */
+    public Object build(Harness harness, int rows, int cols, long seed) {
+        Object grid = harness.newGrid(rows, cols);
+        if (style != null) harness.generateMaze(grid, style, seed);
+        harness.setWall(grid, 1, 1, false);
+        harness.setWall(grid, rows - 2, cols - 2, false);
+        return grid;
+    }
+}
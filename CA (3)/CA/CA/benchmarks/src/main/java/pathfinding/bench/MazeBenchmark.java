@@ -0,0 +1,38 @@
+package pathfinding.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Cost of building each benchmark layout from scratch. */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MazeBenchmark {
+
+    @Param({"50x30", "256x256", "1024x1024", "4096x4096"})
+    public String size;
+
+    @Param({"RANDOM_25", "RECURSIVE_DIVISION"})
+    public Layout layout;
+
+    @Param("42")
+    public long seed;
+
+    private Harness harness;
+    private GridSize gridSize;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        harness = Harness.load();
+        gridSize = GridSize.parse(size);
+    }
+
+    @Benchmark
+    public Object generate() {
+        return layout.build(harness, gridSize.rows, gridSize.cols, seed);
+    }
+}
@@ -0,0 +1,64 @@
+package pathfinding.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dijkstra and A* on each of their priority queues: the binary heap, Dial's
+ * buckets and the radix heap. Every open cell gets a random terrain cost from
+ * 1 to {@code maxCost}, so a cost of 1 is the plain unweighted grid.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class QueueBenchmark {
+
+    @Param({"256x256", "1024x1024", "2048x2048"})
+    public String size;
+
+    @Param({"OPEN", "RANDOM_25"})
+    public Layout layout;
+
+    @Param({"1", "9", "100"})
+    public int maxCost;
+
+    @Param({"DIJKSTRA", "DIJKSTRA_DIAL", "DIJKSTRA_RADIX", "ASTAR_MANHATTAN", "ASTAR_DIAL", "ASTAR_RADIX"})
+    public SearchAlgorithm algorithm;
+
+    @Param("42")
+    public long seed;
+
+    private Harness harness;
+    private Object grid;
+    private Object context;
+    private int start;
+    private int end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GridSize gridSize = GridSize.parse(size);
+        harness = Harness.load();
+        grid = layout.build(harness, gridSize.rows, gridSize.cols, seed);
+        if (maxCost > 1) {
+            Random random = new Random(seed + 1);
+            for (int i = 0; i < gridSize.rows; i++) {
+                for (int j = 0; j < gridSize.cols; j++) {
+                    harness.setCost(grid, i, j, 1 + random.nextInt(maxCost));
+                }
+            }
+        }
+        context = harness.newContext(grid);
+        start = harness.index(grid, 1, 1);
+        end = harness.index(grid, gridSize.rows - 2, gridSize.cols - 2);
+    }
+
+    @Benchmark
+    public int search() {
+        return harness.search(algorithm, grid, start, end, context);
+    }
+}
@@ -0,0 +1,59 @@
+package pathfinding.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Incremental replanning with D* Lite. Each invocation walls off one cell of
+ * the planned path, replans around it, removes the wall and replans again,
+ * so it measures two single-edit replans. Compare with a full
+ * {@link SearchBenchmark} A* run on the same map.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplanBenchmark {
+
+    @Param({"256x256", "1024x1024"})
+    public String size;
+
+    @Param({"OPEN", "RANDOM_25"})
+    public Layout layout;
+
+    @Param("42")
+    public long seed;
+
+    private Harness harness;
+    private Object grid;
+    private Object planner;
+    private int[] path;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GridSize gridSize = GridSize.parse(size);
+        harness = Harness.load();
+        grid = layout.build(harness, gridSize.rows, gridSize.cols, seed);
+        planner = harness.newPlanner(grid, harness.index(grid, 1, 1),
+                harness.index(grid, gridSize.rows - 2, gridSize.cols - 2));
+        harness.plan(planner);
+        path = harness.plannedPath(planner);
+        if (path.length < 3) {
+            throw new IllegalStateException("No path on this map; pick another seed");
+        }
+    }
+
+    @Benchmark
+    public int blockAndUnblock() {
+        // Never the start or the end.
+        int cell = path[1 + next++ % (path.length - 2)];
+        harness.setWall(grid, cell, true);
+        int expanded = harness.plan(planner);
+        harness.setWall(grid, cell, false);
+        return expanded + harness.plan(planner);
+    }
+}
@@ -0,0 +1,24 @@
+package pathfinding.bench;
+
+/** The searches the benchmarks cover, named after the core {@code Algorithm} constants. */
+public enum SearchAlgorithm {
+    ASTAR_MANHATTAN,
+    ASTAR_EUCLIDEAN,
+    ASTAR_LANDMARKS,
+    ASTAR_DIAL,
+    ASTAR_RADIX,
+    BFS,
+    PARALLEL_BFS,
+    WAVEFRONT,
+    DIJKSTRA,
+    DIJKSTRA_DIAL,
+    DIJKSTRA_RADIX,
+    DFS,
+    GREEDY_BFS,
+    BIDIRECTIONAL_BFS,
+    PARALLEL_BIDIRECTIONAL_BFS,
+    BIDIRECTIONAL_ASTAR,
+    JPS,
+    JPS_PLUS,
+    HPA_STAR
+}
@@ -0,0 +1,53 @@
+package pathfinding.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One corner-to-corner headless search per invocation. The grid and the
+ * search context are built once per trial, so the numbers cover the search
+ * alone and not fixture setup.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    /** Width x height, from the default view size up to a large production map. */
+    @Param({"50x30", "256x256", "1024x1024", "4096x4096"})
+    public String size;
+
+    @Param
+    public Layout layout;
+
+    @Param
+    public SearchAlgorithm algorithm;
+
+    @Param("42")
+    public long seed;
+
+    private Harness harness;
+    private Object grid;
+    private Object context;
+    private int start;
+    private int end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GridSize gridSize = GridSize.parse(size);
+        harness = Harness.load();
+        grid = layout.build(harness, gridSize.rows, gridSize.cols, seed);
+        context = harness.newContext(grid);
+        start = harness.index(grid, 1, 1);
+        end = harness.index(grid, gridSize.rows - 2, gridSize.cols - 2);
+    }
+
+    @Benchmark
+    public int search() {
+        return harness.search(algorithm, grid, start, end, context);
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * The searches offered by {@link Algorithms} and its siblings, by the name shown in the view.
+ * Lets batch callers and the UI pick a search without a string switch.
+ *
+ * <p>The A*, Dijkstra and bidirectional A* searches pay each cell's terrain
+ * cost ({@link CompactGrid#cost}); the others count every step as 1, so on a
+ * grid with costs their paths are the fewest steps, not the cheapest.
+ */
+public enum Algorithm {
+    ASTAR_MANHATTAN("A* (Manhattan)") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return Algorithms.aStar(grid, start, end, false, context, listener);
+        }
+    },
+    ASTAR_EUCLIDEAN("A* (Euclidean)") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return Algorithms.aStar(grid, start, end, true, context, listener);
+        }
+    },
+    ASTAR_LANDMARKS("A* (landmarks)") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return Algorithms.aStar(grid, start, end, LandmarkTable.of(grid), context, listener);
+        }
+    },
+    ASTAR_DIAL("A* (Dial buckets)") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return Algorithms.aStar(grid, start, end, context.bucketQueue(), context, listener);
+        }
+    },
+    ASTAR_RADIX("A* (radix heap)") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return Algorithms.aStar(grid, start, end, context.radixHeap(), context, listener);
+        }
+    },
+    BFS("BFS") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return Algorithms.bfs(grid, start, end, context, listener);
+        }
+    },
+    PARALLEL_BFS("BFS (parallel levels)") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return ParallelBfs.search(grid, start, end, context, listener);
+        }
+    },
+    WAVEFRONT("BFS (bit-parallel wavefront)") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return Wavefront.search(grid, start, end, context, listener);
+        }
+    },
+    DIJKSTRA("Dijkstra's") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return Algorithms.dijkstra(grid, start, end, context, listener);
+        }
+    },
+    DIJKSTRA_DIAL("Dijkstra's (Dial buckets)") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return Algorithms.dijkstra(grid, start, end, context.bucketQueue(), context, listener);
+        }
+    },
+    DIJKSTRA_RADIX("Dijkstra's (radix heap)") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return Algorithms.dijkstra(grid, start, end, context.radixHeap(), context, listener);
+        }
+    },
+    DFS("DFS") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return Algorithms.dfs(grid, start, end, context, listener);
+        }
+    },
+    GREEDY_BFS("Greedy BFS") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return Algorithms.greedyBFS(grid, start, end, context, listener);
+        }
+    },
+    BIDIRECTIONAL_BFS("Bidirectional BFS") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return BidirectionalSearch.bfs(grid, start, end, context, listener);
+        }
+    },
+    PARALLEL_BIDIRECTIONAL_BFS("Bidirectional BFS (2 threads)") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return BidirectionalSearch.parallelBfs(grid, start, end, context, listener);
+        }
+    },
+    BIDIRECTIONAL_ASTAR("Bidirectional A*") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return BidirectionalSearch.aStar(grid, start, end, false, context, listener);
+        }
+    },
+    JPS("Jump Point Search") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return JumpPointSearch.search(grid, start, end, context, listener);
+        }
+    },
+    JPS_PLUS("JPS+") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return JumpPointSearch.searchPlus(grid, start, end, context, listener);
+        }
+    },
+    HPA_STAR("HPA* (hierarchical)") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            return HierarchicalSearch.search(grid, start, end, context, listener);
+        }
+    },
+    D_STAR_LITE("D* Lite (incremental)") {
+        @Override
+        int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+            IncrementalPlanner planner = context.planner(grid, start, end);
+            int nodesExplored = planner.plan(listener);
+            context.setPath(grid, planner.path());
+            Algorithms.reconstructPath(grid, context, end, listener);
+            return nodesExplored;
+        }
+    };
+
+    private final String displayName;
+
+    Algorithm(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Runs the search and returns the number of expanded nodes; the path is
+     * left in {@code context}. A walled start or end gives no path and
+     * expands nothing. This is the one place that checks: the searches
+     * themselves assume both ends are open.
+     */
+    public int search(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener) {
+        if (grid.isWall(start) || grid.isWall(end)) {
+            context.begin();
+            return 0;
+        }
+        return run(grid, start, end, context, listener);
+    }
+
+    abstract int run(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener);
+
+    /**
+     * Runs the search like {@link #search} and returns what it cost, which is
+     * also committed as a {@link SearchEvent} and handed to {@code metrics}.
+     */
+    public SearchStats measure(CompactGrid grid, int start, int end, SearchContext context, SearchListener listener,
+                               SearchMetrics metrics) {
+        return SearchStats.measure(this, grid, start, end, context, listener, metrics);
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
\ No newline at end of file
@@ -1,56 +1,62 @@
-import java.util.*;
-import java.util.concurrent.TimeUnit;
-
 public class Algorithms {
 
-    public static int aStar(Node[][] grid, Node startNode, Node endNode, boolean euclidean) {
-        clearPath(grid);
-        updateAllNeighbors(grid);
+    public static int aStar(CompactGrid grid, int startCell, int endCell, boolean euclidean) {
+        return aStar(grid, startCell, endCell, euclidean, new SearchContext(grid.size()), SearchListener.NONE);
+    }
 
-        PriorityQueue<Node> openSet = new PriorityQueue<>(Comparator.comparingDouble(a -> a.fScore));
-        Set<Node> closedSet = new HashSet<>();
-        Map<Node, Node> cameFrom = new HashMap<>();
+    public static int aStar(CompactGrid grid, int startCell, int endCell, boolean euclidean,
+                            SearchContext context, SearchListener listener) {
+        return aStar(grid, startCell, endCell, euclidean, null, context, listener);
+    }
 
-        for (Node[] row : grid) {
-            for (Node node : row) {
-                node.gScore = Double.POSITIVE_INFINITY;
-                node.fScore = Double.POSITIVE_INFINITY;
-            }
-        }
+    /** A* guided by the ALT heuristic from {@code landmarks}, never weaker than Manhattan distance. */
+    public static int aStar(CompactGrid grid, int startCell, int endCell, LandmarkTable landmarks,
+                            SearchContext context, SearchListener listener) {
+        return aStar(grid, startCell, endCell, false, landmarks, context, listener);
+    }
 
-        startNode.gScore = 0;
-        startNode.fScore = heuristic(startNode, endNode, euclidean);
-        openSet.add(startNode);
+    private static int aStar(CompactGrid grid, int startCell, int endCell, boolean euclidean, LandmarkTable landmarks,
+                             SearchContext context, SearchListener listener) {
+        context.begin();
+        IndexedMinHeap openSet = context.openSet();
+
+        context.markSeen(startCell);
+        context.setG(startCell, 0);
+        openSet.add(startCell, estimate(grid, startCell, endCell, euclidean, landmarks));
 
         int nodesExplored = 0;
 
         while (!openSet.isEmpty()) {
-            Node current = openSet.poll();
+            int current = openSet.poll();
             nodesExplored++;
 
-            if (current == endNode) {
-                reconstructPath(cameFrom, current, grid);
+            if (current == endCell) {
+                reconstructPath(grid, context, current, listener);
                 return nodesExplored;
             }
 
-            closedSet.add(current);
-            current.isVisited = true;
-            repaintGrid(grid);
-            sleep(5);
+            context.markClosed(current);
+            listener.nodeExpanded(current);
 
-            for (Node neighbor : current.neighbors) {
-                if (closedSet.contains(neighbor)) continue;
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = grid.neighbor(current, dir);
+                if (neighbor < 0 || context.isClosed(neighbor)) continue;
 
-                double tentativeGScore = current.gScore + 1;
+                int tentativeGScore = context.g(current) + grid.cost(neighbor);
 
-                if (tentativeGScore < neighbor.gScore) {
-                    cameFrom.put(neighbor, current);
-                    neighbor.gScore = tentativeGScore;
-                    neighbor.fScore = neighbor.gScore + heuristic(neighbor, endNode, euclidean);
+                if (tentativeGScore < context.g(neighbor)) {
+                    double fScore = tentativeGScore + estimate(grid, neighbor, endCell, euclidean, landmarks);
 
-                    if (!openSet.contains(neighbor)) {
-                        openSet.add(neighbor);
+                    if (openSet.contains(neighbor)) {
+                        openSet.decreaseKey(neighbor, fScore);
+                        listener.keyDecreased(neighbor);
+                    } else {
+                        context.markSeen(neighbor);
+                        openSet.add(neighbor, fScore);
+                        listener.nodeEnqueued(neighbor);
                     }
+                    context.setParent(neighbor, dir);
+                    context.setG(neighbor, tentativeGScore);
                 }
             }
         }
@@ -58,36 +64,48 @@ public class Algorithms {
         return nodesExplored;
     }
 
-    public static int bfs(Node[][] grid, Node startNode, Node endNode) {
-        clearPath(grid);
-        updateAllNeighbors(grid);
+    /**
+     * A* with Manhattan distance, queued on {@code queue} instead of the binary
+     * heap. Manhattan distance is consistent, so f-scores never drop as the
+     * search goes on, which is all a {@link MonotoneQueue} needs.
+     */
+    public static int aStar(CompactGrid grid, int startCell, int endCell, MonotoneQueue queue,
+                            SearchContext context, SearchListener listener) {
+        return monotoneSearch(grid, startCell, endCell, true, queue, context, listener);
+    }
+
+    public static int bfs(CompactGrid grid, int startCell, int endCell) {
+        return bfs(grid, startCell, endCell, new SearchContext(grid.size()), SearchListener.NONE);
+    }
 
-        Queue<Node> queue = new LinkedList<>();
-        Map<Node, Node> cameFrom = new HashMap<>();
-        Set<Node> visited = new HashSet<>();
+    public static int bfs(CompactGrid grid, int startCell, int endCell,
+                          SearchContext context, SearchListener listener) {
+        context.begin();
+        int[] queue = context.queue();
+        int head = 0, tail = 0;
         int nodesExplored = 0;
 
-        queue.add(startNode);
-        visited.add(startNode);
+        queue[tail++] = startCell;
+        context.markSeen(startCell);
 
-        while (!queue.isEmpty()) {
-            Node current = queue.poll();
+        while (head < tail) {
+            int current = queue[head++];
             nodesExplored++;
 
-            if (current == endNode) {
-                reconstructPath(cameFrom, current, grid);
+            if (current == endCell) {
+                reconstructPath(grid, context, current, listener);
                 return nodesExplored;
             }
 
-            current.isVisited = true;
-            repaintGrid(grid);
-            sleep(5);
+            listener.nodeExpanded(current);
 
-            for (Node neighbor : current.neighbors) {
-                if (!visited.contains(neighbor)) {
-                    cameFrom.put(neighbor, current);
-                    visited.add(neighbor);
-                    queue.add(neighbor);
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = grid.neighbor(current, dir);
+                if (neighbor >= 0 && !context.isSeen(neighbor)) {
+                    context.markSeen(neighbor);
+                    context.setParent(neighbor, dir);
+                    queue[tail++] = neighbor;
+                    listener.nodeEnqueued(neighbor);
                 }
             }
         }
@@ -95,45 +113,47 @@ public class Algorithms {
         return nodesExplored;
     }
 
-    public static int dijkstra(Node[][] grid, Node startNode, Node endNode) {
-        clearPath(grid);
-        updateAllNeighbors(grid);
+    public static int dijkstra(CompactGrid grid, int startCell, int endCell) {
+        return dijkstra(grid, startCell, endCell, new SearchContext(grid.size()), SearchListener.NONE);
+    }
 
-        PriorityQueue<Node> queue = new PriorityQueue<>(Comparator.comparingDouble(a -> a.distance));
-        Map<Node, Node> cameFrom = new HashMap<>();
+    public static int dijkstra(CompactGrid grid, int startCell, int endCell,
+                               SearchContext context, SearchListener listener) {
+        context.begin();
+        IndexedMinHeap queue = context.openSet();
         int nodesExplored = 0;
 
-        for (Node[] row : grid) {
-            for (Node node : row) {
-                node.distance = Double.POSITIVE_INFINITY;
-            }
-        }
-
-        startNode.distance = 0;
-        queue.add(startNode);
+        context.markSeen(startCell);
+        context.setG(startCell, 0);
+        queue.add(startCell, 0);
 
         while (!queue.isEmpty()) {
-            Node current = queue.poll();
+            int current = queue.poll();
             nodesExplored++;
+            context.markClosed(current);
 
-            if (current.isVisited) continue;
-            current.isVisited = true;
-
-            if (current == endNode) {
-                reconstructPath(cameFrom, current, grid);
+            if (current == endCell) {
+                reconstructPath(grid, context, current, listener);
                 return nodesExplored;
             }
 
-            repaintGrid(grid);
-            sleep(5);
-
-            for (Node neighbor : current.neighbors) {
-                if (!neighbor.isVisited) {
-                    double newDist = current.distance + 1;
-                    if (newDist < neighbor.distance) {
-                        neighbor.distance = newDist;
-                        cameFrom.put(neighbor, current);
-                        queue.add(neighbor);
+            listener.nodeExpanded(current);
+
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = grid.neighbor(current, dir);
+                if (neighbor >= 0 && !context.isClosed(neighbor)) {
+                    int newDist = context.g(current) + grid.cost(neighbor);
+                    if (newDist < context.g(neighbor)) {
+                        if (queue.contains(neighbor)) {
+                            queue.decreaseKey(neighbor, newDist);
+                            listener.keyDecreased(neighbor);
+                        } else {
+                            context.markSeen(neighbor);
+                            queue.add(neighbor, newDist);
+                            listener.nodeEnqueued(neighbor);
+                        }
+                        context.setParent(neighbor, dir);
+                        context.setG(neighbor, newDist);
                     }
                 }
             }
@@ -142,36 +162,58 @@ public class Algorithms {
         return nodesExplored;
     }
 
-    public static int dfs(Node[][] grid, Node startNode, Node endNode) {
-        clearPath(grid);
-        updateAllNeighbors(grid);
+    /** Dijkstra's algorithm queued on {@code queue} instead of the binary heap. */
+    public static int dijkstra(CompactGrid grid, int startCell, int endCell, MonotoneQueue queue,
+                               SearchContext context, SearchListener listener) {
+        return monotoneSearch(grid, startCell, endCell, false, queue, context, listener);
+    }
 
-        Stack<Node> stack = new Stack<>();
-        Map<Node, Node> cameFrom = new HashMap<>();
-        Set<Node> visited = new HashSet<>();
+    /**
+     * Dijkstra's algorithm, or A* when {@code guided}, on integer keys. The
+     * queue has no decrease-key, so a cell that improves is queued again and
+     * the older copy is skipped when it comes out after the cell is closed.
+     */
+    private static int monotoneSearch(CompactGrid grid, int startCell, int endCell, boolean guided,
+                                      MonotoneQueue queue, SearchContext context, SearchListener listener) {
+        context.begin();
+        queue.clear();
         int nodesExplored = 0;
 
-        stack.push(startNode);
-        visited.add(startNode);
+        context.markSeen(startCell);
+        context.setG(startCell, 0);
+        queue.add(startCell, guided ? (int) heuristic(grid, startCell, endCell, false) : 0);
 
-        while (!stack.isEmpty()) {
-            Node current = stack.pop();
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            if (context.isClosed(current)) continue;
             nodesExplored++;
+            context.markClosed(current);
 
-            if (current == endNode) {
-                reconstructPath(cameFrom, current, grid);
+            if (current == endCell) {
+                reconstructPath(grid, context, current, listener);
                 return nodesExplored;
             }
 
-            current.isVisited = true;
-            repaintGrid(grid);
-            sleep(5);
+            listener.nodeExpanded(current);
+
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = grid.neighbor(current, dir);
+                if (neighbor < 0 || context.isClosed(neighbor)) continue;
 
-            for (Node neighbor : current.neighbors) {
-                if (!visited.contains(neighbor)) {
-                    cameFrom.put(neighbor, current);
-                    visited.add(neighbor);
-                    stack.push(neighbor);
+                int tentativeGScore = context.g(current) + grid.cost(neighbor);
+                if (tentativeGScore < context.g(neighbor)) {
+                    if (!context.isSeen(neighbor)) {
+                        context.markSeen(neighbor);
+                        listener.nodeEnqueued(neighbor);
+                    } else {
+                        // The older entry stays queued and is skipped once the cell is closed.
+                        listener.keyDecreased(neighbor);
+                    }
+                    context.setParent(neighbor, dir);
+                    context.setG(neighbor, tentativeGScore);
+                    queue.add(neighbor, guided
+                            ? tentativeGScore + (int) heuristic(grid, neighbor, endCell, false)
+                            : tentativeGScore);
                 }
             }
         }
@@ -179,39 +221,38 @@ public class Algorithms {
         return nodesExplored;
     }
 
-    public static int greedyBFS(Node[][] grid, Node startNode, Node endNode) {
-        clearPath(grid);
-        updateAllNeighbors(grid);
+    public static int dfs(CompactGrid grid, int startCell, int endCell) {
+        return dfs(grid, startCell, endCell, new SearchContext(grid.size()), SearchListener.NONE);
+    }
 
-        PriorityQueue<Node> openSet = new PriorityQueue<>(Comparator.comparingDouble(a -> a.fScore));
-        Set<Node> closedSet = new HashSet<>();
-        Map<Node, Node> cameFrom = new HashMap<>();
+    public static int dfs(CompactGrid grid, int startCell, int endCell,
+                          SearchContext context, SearchListener listener) {
+        context.begin();
+        int[] stack = context.queue();
+        int top = 0;
         int nodesExplored = 0;
 
-        startNode.fScore = heuristic(startNode, endNode, false);
-        openSet.add(startNode);
+        stack[top++] = startCell;
+        context.markSeen(startCell);
 
-        while (!openSet.isEmpty()) {
-            Node current = openSet.poll();
+        while (top > 0) {
+            int current = stack[--top];
             nodesExplored++;
 
-            if (current == endNode) {
-                reconstructPath(cameFrom, current, grid);
+            if (current == endCell) {
+                reconstructPath(grid, context, current, listener);
                 return nodesExplored;
             }
 
-            closedSet.add(current);
-            current.isVisited = true;
-            repaintGrid(grid);
-            sleep(5);
-
-            for (Node neighbor : current.neighbors) {
-                if (!closedSet.contains(neighbor)) {
-                    cameFrom.put(neighbor, current);
-                    neighbor.fScore = heuristic(neighbor, endNode, false);
-                    if (!openSet.contains(neighbor)) {
-                        openSet.add(neighbor);
-                    }
+            listener.nodeExpanded(current);
+
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = grid.neighbor(current, dir);
+                if (neighbor >= 0 && !context.isSeen(neighbor)) {
+                    context.markSeen(neighbor);
+                    context.setParent(neighbor, dir);
+                    stack[top++] = neighbor;
+                    listener.nodeEnqueued(neighbor);
                 }
             }
         }
@@ -219,54 +260,69 @@ public class Algorithms {
         return nodesExplored;
     }
 
-    private static double heuristic(Node a, Node b, boolean euclidean) {
-        if (euclidean) {
-            return Math.sqrt(Math.pow(a.row - b.row, 2) + Math.pow(a.col - b.col, 2));
-        } else {
-            return Math.abs(a.row - b.row) + Math.abs(a.col - b.col);
-        }
+    public static int greedyBFS(CompactGrid grid, int startCell, int endCell) {
+        return greedyBFS(grid, startCell, endCell, new SearchContext(grid.size()), SearchListener.NONE);
     }
 
-    private static void reconstructPath(Map<Node, Node> cameFrom, Node current, Node[][] grid) {
-        while (cameFrom.containsKey(current)) {
-            current = cameFrom.get(current);
-            if (!current.isStart && !current.isEnd) {
-                current.isPath = true;
+    public static int greedyBFS(CompactGrid grid, int startCell, int endCell,
+                                SearchContext context, SearchListener listener) {
+        context.begin();
+        IndexedMinHeap openSet = context.openSet();
+        int nodesExplored = 0;
+
+        context.markSeen(startCell);
+        openSet.add(startCell, heuristic(grid, startCell, endCell, false));
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            nodesExplored++;
+
+            if (current == endCell) {
+                reconstructPath(grid, context, current, listener);
+                return nodesExplored;
             }
-            repaintGrid(grid);
-            sleep(20);
-        }
-    }
 
-    private static void clearPath(Node[][] grid) {
-        for (Node[] row : grid) {
-            for (Node node : row) {
-                if (!node.isStart && !node.isEnd && !node.isWall) {
-                    node.isVisited = false;
-                    node.isPath = false;
+            context.markClosed(current);
+            listener.nodeExpanded(current);
+
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = grid.neighbor(current, dir);
+                if (neighbor >= 0 && !context.isClosed(neighbor)) {
+                    if (!context.isSeen(neighbor)) {
+                        context.markSeen(neighbor);
+                        openSet.add(neighbor, heuristic(grid, neighbor, endCell, false));
+                        listener.nodeEnqueued(neighbor);
+                    }
+                    context.setParent(neighbor, dir);
                 }
             }
         }
+
+        return nodesExplored;
     }
 
-    private static void updateAllNeighbors(Node[][] grid) {
-        for (Node[] row : grid) {
-            for (Node node : row) {
-                node.updateNeighbors(grid);
-            }
-        }
+    private static double estimate(CompactGrid grid, int a, int b, boolean euclidean, LandmarkTable landmarks) {
+        float h = heuristic(grid, a, b, euclidean);
+        return landmarks == null ? h : Math.max(h, landmarks.estimate(a, b));
     }
 
-    private static void repaintGrid(Node[][] grid) {
-        // This would need to be implemented to trigger a repaint in the UI
-        // In a real implementation, you would call a method on your main panel to repaint
+    static float heuristic(CompactGrid grid, int a, int b, boolean euclidean) {
+        int dRow = grid.row(a) - grid.row(b);
+        int dCol = grid.col(a) - grid.col(b);
+        if (euclidean) {
+            return (float) Math.sqrt((double) dRow * dRow + (double) dCol * dCol);
+        } else {
+            return Math.abs(dRow) + Math.abs(dCol);
+        }
     }
 
-    private static void sleep(int millis) {
-        try {
-            TimeUnit.MILLISECONDS.sleep(millis);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    static void reconstructPath(CompactGrid grid, SearchContext context, int current, SearchListener listener) {
+        int dir;
+        while ((dir = context.parentDirection(current)) >= 0) {
+            current = grid.step(current, dir);
+            if (context.parentDirection(current) >= 0) {
+                listener.pathCell(current);
+            }
         }
     }
 }
\ No newline at end of file
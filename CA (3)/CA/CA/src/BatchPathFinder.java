@@ -0,0 +1,122 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Answers many {@link PathQuery}s against one grid in parallel.
+ * The grid is shared read-only between workers; every worker borrows its own
+ * {@link SearchContext} from a pool, so no search state is shared and contexts
+ * are reused across batches instead of being reallocated. The grid must not be
+ * modified while a batch is running. Every search that is not answered from
+ * the cache is measured and reported to the finder's {@link SearchMetrics}.
+ */
+public class BatchPathFinder {
+    // Queries per fork/join leaf; one context is borrowed per leaf.
+    private static final int BATCH_GRAIN = 16;
+
+    private final CompactGrid grid;
+    private final ForkJoinPool pool;
+    private final PathCache cache;
+    private final SearchMetrics metrics;
+    private final ConcurrentLinkedQueue<SearchContext> contexts = new ConcurrentLinkedQueue<>();
+
+    public BatchPathFinder(CompactGrid grid) {
+        this(grid, ForkJoinPool.commonPool());
+    }
+
+    public BatchPathFinder(CompactGrid grid, ForkJoinPool pool) {
+        this(grid, pool, null);
+    }
+
+    /** Answers repeated queries from {@code cache} while the grid's walls stay the same. */
+    public BatchPathFinder(CompactGrid grid, ForkJoinPool pool, PathCache cache) {
+        this(grid, pool, cache, SearchMetrics.NONE);
+    }
+
+    public BatchPathFinder(CompactGrid grid, ForkJoinPool pool, PathCache cache, SearchMetrics metrics) {
+        this.grid = grid;
+        this.pool = pool;
+        this.cache = cache;
+        this.metrics = metrics;
+        // Built now so that the first batch's workers do not all wait on it.
+        ComponentIndex.of(grid);
+    }
+
+    /** Convenience for one-off batches; keep a {@code BatchPathFinder} around to reuse its contexts. */
+    public static List<PathResult> findPaths(CompactGrid grid, List<PathQuery> queries) {
+        return new BatchPathFinder(grid).findPaths(queries);
+    }
+
+    public CompactGrid grid() {
+        return grid;
+    }
+
+    /** Answers a single query on the calling thread. */
+    public PathResult findPath(PathQuery query) {
+        SearchContext context = borrow();
+        try {
+            return answer(query, context);
+        } finally {
+            contexts.offer(context);
+        }
+    }
+
+    /** Answers all queries in parallel; results are in the same order as the queries. */
+    public List<PathResult> findPaths(List<PathQuery> queries) {
+        PathQuery[] batch = queries.toArray(new PathQuery[0]);
+        PathResult[] results = new PathResult[batch.length];
+        pool.invoke(new BatchTask(batch, results, 0, batch.length));
+        return Arrays.asList(results);
+    }
+
+    private PathResult answer(PathQuery query, SearchContext context) {
+        int version = grid.version();
+        if (cache != null) {
+            PathResult cached = cache.get(query, version);
+            if (cached != null) return cached;
+        }
+        SearchStats stats = query.algorithm.measure(grid, query.start, query.end, context, SearchListener.NONE, metrics);
+        PathResult result = new PathResult(context.path(grid, query.end), stats);
+        if (cache != null) cache.put(query, version, result);
+        return result;
+    }
+
+    private SearchContext borrow() {
+        SearchContext context = contexts.poll();
+        return context != null ? context : new SearchContext(grid.size());
+    }
+
+    @SuppressWarnings("serial")
+    private class BatchTask extends RecursiveAction {
+        private final PathQuery[] queries;
+        private final PathResult[] results;
+        private final int from;
+        private final int to;
+
+        BatchTask(PathQuery[] queries, PathResult[] results, int from, int to) {
+            this.queries = queries;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_GRAIN) {
+                SearchContext context = borrow();
+                try {
+                    for (int i = from; i < to; i++) {
+                        results[i] = answer(queries[i], context);
+                    }
+                } finally {
+                    contexts.offer(context);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchTask(queries, results, from, mid), new BatchTask(queries, results, mid, to));
+        }
+    }
+}
\ No newline at end of file
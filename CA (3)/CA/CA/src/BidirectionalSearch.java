@@ -0,0 +1,294 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Bidirectional variants of BFS and A*. One frontier grows from the start and
+ * one from the end, each with its own {@link SearchContext}; on long paths
+ * the two meet after exploring far fewer cells than a one-sided search.
+ * When a path is found it is spliced into the forward context, so
+ * {@link SearchContext#path} works exactly as for the other searches.
+ */
+public class BidirectionalSearch {
+
+    /** One side of a level-by-level bidirectional BFS. */
+    private static class Frontier {
+        final SearchContext context;
+        final int[] queue;
+        final int side;
+        int head, tail;
+        int depth;
+        int[] meetings = new int[8];
+        int meetingCount;
+
+        Frontier(SearchContext context, int root, int side) {
+            this.context = context;
+            this.queue = context.queue();
+            this.side = side;
+            context.markSeen(root);
+            context.setG(root, 0);
+            queue[tail++] = root;
+        }
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+
+        int size() {
+            return tail - head;
+        }
+
+        void addMeeting(int cell) {
+            if (meetingCount == meetings.length) {
+                meetings = Arrays.copyOf(meetings, meetingCount * 2);
+            }
+            meetings[meetingCount++] = cell;
+        }
+    }
+
+    public static int bfs(CompactGrid grid, int startCell, int endCell) {
+        return bfs(grid, startCell, endCell, new SearchContext(grid.size()), SearchListener.NONE);
+    }
+
+    /**
+     * Bidirectional BFS on one thread. Each step expands a whole level of the
+     * smaller frontier; the first level on which the frontiers touch yields a
+     * shortest path, since both sides have then seen complete distance balls.
+     */
+    public static int bfs(CompactGrid grid, int startCell, int endCell,
+                          SearchContext context, SearchListener listener) {
+        SearchContext backwardContext = context.reverse();
+        context.begin();
+        backwardContext.begin();
+        Frontier forward = new Frontier(context, startCell, FrontierMarks.FORWARD);
+        Frontier backward = new Frontier(backwardContext, endCell, FrontierMarks.BACKWARD);
+        int nodesExplored = 0;
+
+        if (startCell == endCell) {
+            return 1;
+        }
+
+        while (!forward.isEmpty() && !backward.isEmpty()) {
+            Frontier active = forward.size() <= backward.size() ? forward : backward;
+            Frontier other = active == forward ? backward : forward;
+            int levelEnd = active.tail;
+            active.depth++;
+
+            while (active.head < levelEnd) {
+                int current = active.queue[active.head++];
+                nodesExplored++;
+                listener.nodeExpanded(current);
+
+                for (int dir = 0; dir < 4; dir++) {
+                    int neighbor = grid.neighbor(current, dir);
+                    if (neighbor < 0 || active.context.isSeen(neighbor)) continue;
+                    active.context.markSeen(neighbor);
+                    active.context.setParent(neighbor, dir);
+                    active.context.setG(neighbor, active.depth);
+                    active.queue[active.tail++] = neighbor;
+                    listener.nodeEnqueued(neighbor);
+                    if (other.context.isSeen(neighbor)) {
+                        active.addMeeting(neighbor);
+                    }
+                }
+            }
+
+            if (active.meetingCount > 0) {
+                finish(grid, context, backwardContext, bestMeeting(context, backwardContext, forward, backward),
+                        endCell, listener);
+                return nodesExplored;
+            }
+        }
+
+        return nodesExplored;
+    }
+
+    /**
+     * Bidirectional BFS with the two frontiers grown at the same time, the
+     * backward one on a {@link ForkJoinPool} worker. Each round expands one
+     * level on both sides; the sides detect meetings through lock-free
+     * {@link FrontierMarks} and the shortest meeting is picked once both have
+     * finished the round. Listener events are all delivered on the calling
+     * thread.
+     */
+    public static int parallelBfs(CompactGrid grid, int startCell, int endCell,
+                                  SearchContext context, SearchListener listener) {
+        SearchContext backwardContext = context.reverse();
+        FrontierMarks marks = context.frontierMarks();
+        context.begin();
+        backwardContext.begin();
+        marks.begin();
+        Frontier forward = new Frontier(context, startCell, FrontierMarks.FORWARD);
+        Frontier backward = new Frontier(backwardContext, endCell, FrontierMarks.BACKWARD);
+        marks.mark(startCell, FrontierMarks.FORWARD);
+        int nodesExplored = 0;
+
+        if (marks.mark(endCell, FrontierMarks.BACKWARD)) {
+            return 1;
+        }
+
+        while (!forward.isEmpty() && !backward.isEmpty()) {
+            int backwardFrom = backward.head;
+            int backwardQueued = backward.tail;
+            ForkJoinTask<Integer> backwardLevel = ForkJoinPool.commonPool()
+                    .submit(() -> expandLevel(grid, backward, marks, SearchListener.NONE));
+            nodesExplored += expandLevel(grid, forward, marks, listener);
+            nodesExplored += backwardLevel.join();
+
+            // Replay the backward level here so listeners never see a worker thread.
+            for (int i = backwardFrom; i < backward.head; i++) {
+                listener.nodeExpanded(backward.queue[i]);
+            }
+            for (int i = backwardQueued; i < backward.tail; i++) {
+                listener.nodeEnqueued(backward.queue[i]);
+            }
+
+            if (forward.meetingCount > 0 || backward.meetingCount > 0) {
+                finish(grid, context, backwardContext, bestMeeting(context, backwardContext, forward, backward),
+                        endCell, listener);
+                return nodesExplored;
+            }
+        }
+
+        return nodesExplored;
+    }
+
+    private static int expandLevel(CompactGrid grid, Frontier frontier, FrontierMarks marks, SearchListener listener) {
+        SearchContext context = frontier.context;
+        int levelEnd = frontier.tail;
+        int expanded = levelEnd - frontier.head;
+        frontier.depth++;
+
+        while (frontier.head < levelEnd) {
+            int current = frontier.queue[frontier.head++];
+            listener.nodeExpanded(current);
+
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = grid.neighbor(current, dir);
+                if (neighbor < 0 || context.isSeen(neighbor)) continue;
+                context.markSeen(neighbor);
+                context.setParent(neighbor, dir);
+                context.setG(neighbor, frontier.depth);
+                frontier.queue[frontier.tail++] = neighbor;
+                listener.nodeEnqueued(neighbor);
+                if (marks.mark(neighbor, frontier.side)) {
+                    frontier.addMeeting(neighbor);
+                }
+            }
+        }
+
+        return expanded;
+    }
+
+    private static int bestMeeting(SearchContext forwardContext, SearchContext backwardContext,
+                                   Frontier forward, Frontier backward) {
+        int best = -1;
+        int bestCost = Integer.MAX_VALUE;
+        for (Frontier frontier : new Frontier[]{forward, backward}) {
+            for (int i = 0; i < frontier.meetingCount; i++) {
+                int cell = frontier.meetings[i];
+                int cost = forwardContext.g(cell) + backwardContext.g(cell);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = cell;
+                }
+            }
+        }
+        return best;
+    }
+
+    public static int aStar(CompactGrid grid, int startCell, int endCell, boolean euclidean) {
+        return aStar(grid, startCell, endCell, euclidean, new SearchContext(grid.size()), SearchListener.NONE);
+    }
+
+    /**
+     * Bidirectional A*, forward towards the end and backward towards the start.
+     * Each step expands the side with the smaller open set. The best meeting
+     * cost found so far is optimal once it is no larger than the smallest
+     * f-score on either open set, because with a consistent heuristic every
+     * cheaper path would still have a cell on both open sets below it.
+     * Terrain costs are paid in both directions.
+     */
+    public static int aStar(CompactGrid grid, int startCell, int endCell, boolean euclidean,
+                            SearchContext context, SearchListener listener) {
+        SearchContext forward = context;
+        SearchContext backward = context.reverse();
+        forward.begin();
+        backward.begin();
+        IndexedMinHeap forwardOpen = forward.openSet();
+        IndexedMinHeap backwardOpen = backward.openSet();
+
+        forward.markSeen(startCell);
+        forward.setG(startCell, 0);
+        forwardOpen.add(startCell, Algorithms.heuristic(grid, startCell, endCell, euclidean));
+        backward.markSeen(endCell);
+        backward.setG(endCell, 0);
+        backwardOpen.add(endCell, Algorithms.heuristic(grid, endCell, startCell, euclidean));
+
+        int bestCost = startCell == endCell ? 0 : Integer.MAX_VALUE;
+        int meeting = startCell == endCell ? startCell : -1;
+        int nodesExplored = 0;
+
+        while (!forwardOpen.isEmpty() && !backwardOpen.isEmpty()
+                && bestCost > Math.max(forwardOpen.peekKey(), backwardOpen.peekKey())) {
+            boolean isForward = forwardOpen.size() <= backwardOpen.size();
+            SearchContext active = isForward ? forward : backward;
+            SearchContext other = isForward ? backward : forward;
+            IndexedMinHeap openSet = isForward ? forwardOpen : backwardOpen;
+            int target = isForward ? endCell : startCell;
+
+            int current = openSet.poll();
+            nodesExplored++;
+            active.markClosed(current);
+            listener.nodeExpanded(current);
+
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = grid.neighbor(current, dir);
+                if (neighbor < 0 || active.isClosed(neighbor)) continue;
+
+                // The backward side walks steps in reverse, so it pays for the cell it leaves.
+                int tentativeGScore = active.g(current) + grid.cost(isForward ? neighbor : current);
+                if (tentativeGScore < active.g(neighbor)) {
+                    double fScore = tentativeGScore + Algorithms.heuristic(grid, neighbor, target, euclidean);
+                    if (openSet.contains(neighbor)) {
+                        openSet.decreaseKey(neighbor, fScore);
+                        listener.keyDecreased(neighbor);
+                    } else {
+                        active.markSeen(neighbor);
+                        openSet.add(neighbor, fScore);
+                        listener.nodeEnqueued(neighbor);
+                    }
+                    active.setParent(neighbor, dir);
+                    active.setG(neighbor, tentativeGScore);
+
+                    if (other.isSeen(neighbor) && tentativeGScore + other.g(neighbor) < bestCost) {
+                        bestCost = tentativeGScore + other.g(neighbor);
+                        meeting = neighbor;
+                    }
+                }
+            }
+        }
+
+        if (meeting >= 0) {
+            finish(grid, forward, backward, meeting, endCell, listener);
+        }
+        return nodesExplored;
+    }
+
+    /**
+     * Re-links the backward half of the path, from the meeting cell to the end,
+     * as forward parents and reports the whole path to the listener.
+     */
+    private static void finish(CompactGrid grid, SearchContext forward, SearchContext backward,
+                               int meeting, int endCell, SearchListener listener) {
+        int cell = meeting;
+        int dir;
+        while ((dir = backward.parentDirection(cell)) >= 0) {
+            int next = grid.step(cell, dir);
+            forward.markSeen(next);
+            forward.setParent(next, dir);
+            cell = next;
+        }
+        Algorithms.reconstructPath(grid, forward, endCell, listener);
+    }
+}
\ No newline at end of file
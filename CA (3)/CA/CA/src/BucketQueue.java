@@ -0,0 +1,106 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Dial's bucket queue: one bucket per key, kept in a ring. Adding a cell
+ * appends it to its key's bucket and polling walks forward to the next bucket
+ * that has anything in it, so both are O(1) apart from skipping empty buckets.
+ *
+ * <p>The ring only works while every queued key is within {@link #span()} of
+ * the last one polled. Dijkstra's keys never run further ahead than the
+ * largest step cost, and Manhattan A* adds one more, so the default span
+ * covers every search on a {@link CompactGrid}. Cells with equal keys come
+ * out last in, first out, which sends A* down the newest of its equally good
+ * branches.
+ */
+public class BucketQueue implements MonotoneQueue {
+    private final int[][] buckets;
+    private final int[] sizes;
+    private final int mask;
+    private int cursor;
+    private int size;
+    private boolean polled;
+    // Largest key added before the first poll.
+    private int highest;
+
+    public BucketQueue() {
+        this(CompactGrid.MAX_COST + 1);
+    }
+
+    /** Creates a queue whose keys may run up to {@code span} ahead of the last key polled. */
+    public BucketQueue(int span) {
+        if (span < 1 || span > 1 << 24) {
+            throw new IllegalArgumentException("Span must be from 1 to " + (1 << 24) + ": " + span);
+        }
+        int count = Integer.highestOneBit(span) << 1;
+        buckets = new int[count][];
+        sizes = new int[count];
+        mask = count - 1;
+    }
+
+    /** How far ahead of the last key polled, or before the first poll of the smallest key added, a new key may be. */
+    public int span() {
+        return mask;
+    }
+
+    @Override
+    public void add(int cell, int key) {
+        if (!polled) {
+            // Until the first poll the ring follows the smallest key so far; A* starts well above 0.
+            if (size == 0) {
+                cursor = highest = key;
+            } else if (key < cursor && highest - key <= mask) {
+                cursor = key;
+            } else {
+                highest = Math.max(highest, key);
+            }
+        }
+        if (key < cursor || key - cursor > mask) {
+            throw new IllegalArgumentException("Key " + key + " is outside " + cursor + ".." + (cursor + mask));
+        }
+        int b = key & mask;
+        int[] bucket = buckets[b];
+        if (bucket == null) {
+            bucket = buckets[b] = new int[16];
+        } else if (sizes[b] == bucket.length) {
+            bucket = buckets[b] = Arrays.copyOf(bucket, bucket.length * 2);
+        }
+        bucket[sizes[b]++] = cell;
+        size++;
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) throw new NoSuchElementException();
+        polled = true;
+        while (sizes[cursor & mask] == 0) {
+            cursor++;
+        }
+        int b = cursor & mask;
+        size--;
+        return buckets[b][--sizes[b]];
+    }
+
+    @Override
+    public int lastKey() {
+        return polled ? cursor : 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(sizes, 0);
+        cursor = 0;
+        size = 0;
+        polled = false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+import java.util.Arrays;
+
+/**
+ * Cells of a {@link CompactGrid} changed since a cache built on it last
+ * caught up, for the caches that repair themselves a cell at a time rather
+ * than start over. Past a limit the log stops listing cells and asks for a
+ * rebuild instead, because past that many changes one rebuild is cheaper
+ * than repairing them one by one. A new log asks for a rebuild too, since
+ * nothing has been built yet.
+ *
+ * <p>Not thread-safe: the cache that owns a log guards it, usually with the
+ * same lock as its {@link GridChangeListener} methods.
+ */
+class ChangeLog {
+    private final int limit;
+    private int[] cells = new int[16];
+    private int count;
+    private boolean rebuild = true;
+    private int version = -1;
+
+    /** Creates a log that asks for a rebuild instead once more than {@code limit} cells changed. */
+    ChangeLog(int limit) {
+        this.limit = limit;
+    }
+
+    /** A log for caches over {@code grid}, which rebuild once an eighth of its cells changed. */
+    static ChangeLog forGrid(CompactGrid grid) {
+        return new ChangeLog(grid.size() >>> 3);
+    }
+
+    /** Remembers that {@code cell} changed, or gives up on the list once a rebuild is cheaper. */
+    void changed(int cell) {
+        if (rebuild) return;
+        if (count == limit) {
+            reset();
+            return;
+        }
+        if (count == cells.length) {
+            cells = Arrays.copyOf(cells, count * 2);
+        }
+        cells[count++] = cell;
+    }
+
+    /** Asks for a rebuild, after too many cells changed to list them. */
+    void reset() {
+        rebuild = true;
+        count = 0;
+    }
+
+    /** Returns true if the owner has to be built from scratch rather than repaired. */
+    boolean rebuild() {
+        return rebuild;
+    }
+
+    /** Returns true if nothing changed since the owner last caught up. */
+    boolean isEmpty() {
+        return !rebuild && count == 0;
+    }
+
+    /** Returns true if nothing changed since the owner caught up with version {@code gridVersion} of the grid. */
+    boolean isCurrent(int gridVersion) {
+        return isEmpty() && version == gridVersion;
+    }
+
+    /** The {@link CompactGrid#version()} the owner last caught up with, or -1 before it first did. */
+    int version() {
+        return version;
+    }
+
+    /** Number of cells listed, none when a rebuild is due. */
+    int size() {
+        return count;
+    }
+
+    /** The {@code i}-th changed cell, in the order the changes came in. A cell may be listed more than once. */
+    int cell(int i) {
+        return cells[i];
+    }
+
+    boolean contains(int cell) {
+        for (int i = 0; i < count; i++) {
+            if (cells[i] == cell) return true;
+        }
+        return false;
+    }
+
+    /** A copy of the cells listed, for an owner that repairs them after letting go of its lock. */
+    int[] toArray() {
+        return Arrays.copyOf(cells, count);
+    }
+
+    /** Empties the log once the owner is up to date with version {@code gridVersion} of the grid. */
+    void caughtUp(int gridVersion) {
+        rebuild = false;
+        count = 0;
+        version = gridVersion;
+    }
+}
\ No newline at end of file
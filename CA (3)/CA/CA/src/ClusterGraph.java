@@ -0,0 +1,255 @@
+import java.util.Arrays;
+
+/**
+ * Abstract graph over a {@link CompactGrid} for {@link HierarchicalSearch}
+ * (HPA*). The grid is cut into square clusters. Wherever open cells face
+ * each other across a cluster border, the two cells become entrance nodes,
+ * and every cluster stores the shortest in-cluster distance between each pair
+ * of its own entrances. A query then only has to search this much smaller
+ * graph and walk the few clusters its path passes through.
+ *
+ * <p>The graph listens to the grid, and the next {@link #refresh} rebuilds
+ * just the clusters a wall change was in, plus the neighboring cluster when
+ * the change sat on a shared border.
+ *
+ * <p>{@link HierarchicalSearch#graph} keeps one graph on each grid. Refreshes
+ * lock only the graph they rebuild, so one grid's rebuild holds up no query
+ * on another.
+ */
+public class ClusterGraph implements GridChangeListener {
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+    // Open stretches of a border up to this long get one entrance in the middle, longer ones one at each end.
+    private static final int WIDE_ENTRANCE = 6;
+    private static final int[] NO_NODES = new int[0];
+
+    private final int rows;
+    private final int cols;
+    private final int clusterSize;
+    private final int clusterRows;
+    private final int clusterCols;
+    private final int[][] nodes;
+    private final int[][] distances;
+    private final int[] slot;
+
+    // Written by wallChanged/wallsReset, drained by refresh(); guarded by this.
+    private final ChangeLog changes;
+
+    // Scratch for refresh(), which holds the lock.
+    private final boolean[] dirty;
+    private final int[] distance;
+    private final int[] queue;
+    private int[] found = new int[16];
+
+    public ClusterGraph(CompactGrid grid, int clusterSize) {
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("Cluster size must be at least 2: " + clusterSize);
+        }
+        this.rows = grid.rows();
+        this.cols = grid.cols();
+        this.clusterSize = clusterSize;
+        this.clusterRows = (rows + clusterSize - 1) / clusterSize;
+        this.clusterCols = (cols + clusterSize - 1) / clusterSize;
+        this.nodes = new int[clusterRows * clusterCols][];
+        this.distances = new int[nodes.length][];
+        this.slot = new int[grid.size()];
+        this.changes = ChangeLog.forGrid(grid);
+        this.dirty = new boolean[nodes.length];
+        this.distance = new int[clusterSize * clusterSize];
+        this.queue = new int[clusterSize * clusterSize];
+        Arrays.fill(nodes, NO_NODES);
+        Arrays.fill(slot, -1);
+        grid.addChangeListener(this);
+    }
+
+    public int clusterSize() {
+        return clusterSize;
+    }
+
+    public int clusterCount() {
+        return nodes.length;
+    }
+
+    /** Returns the cluster containing {@code cell}. */
+    public int cluster(int cell) {
+        return (cell / cols) / clusterSize * clusterCols + (cell % cols) / clusterSize;
+    }
+
+    /** Position of {@code cell} inside its cluster, below {@code clusterSize * clusterSize}. */
+    int local(int cell) {
+        return (cell / cols) % clusterSize * clusterSize + (cell % cols) % clusterSize;
+    }
+
+    /** The entrance cells of {@code cluster}. */
+    int[] nodes(int cluster) {
+        return nodes[cluster];
+    }
+
+    /** Index of {@code cell} in its cluster's {@link #nodes}, or -1 if it is not an entrance. */
+    int slot(int cell) {
+        return slot[cell];
+    }
+
+    /** In-cluster distance between two entrances of {@code cluster}, or {@link #UNREACHABLE}. */
+    int distance(int cluster, int from, int to) {
+        return distances[cluster][from * nodes[cluster].length + to];
+    }
+
+    public int nodeCount() {
+        int count = 0;
+        for (int[] cells : nodes) {
+            count += cells.length;
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized void wallChanged(int cell) {
+        changes.changed(cell);
+    }
+
+    @Override
+    public synchronized void wallsReset() {
+        changes.reset();
+    }
+
+    public void close(CompactGrid grid) {
+        grid.removeChangeListener(this);
+    }
+
+    /**
+     * Rebuilds every cluster touched by a wall change since the last call.
+     * Returns the number of clusters rebuilt.
+     */
+    public synchronized int refresh(CompactGrid grid) {
+        if (changes.isEmpty()) return 0;
+        if (changes.rebuild()) {
+            Arrays.fill(dirty, true);
+        } else {
+            for (int i = 0; i < changes.size(); i++) {
+                markDirty(changes.cell(i));
+            }
+        }
+        changes.caughtUp(grid.version());
+        int rebuilt = 0;
+        for (int cluster = 0; cluster < nodes.length; cluster++) {
+            if (!dirty[cluster]) continue;
+            dirty[cluster] = false;
+            findEntrances(grid, cluster);
+            measure(grid, cluster);
+            rebuilt++;
+        }
+        return rebuilt;
+    }
+
+    private void markDirty(int cell) {
+        int row = cell / cols, col = cell % cols;
+        int cluster = cluster(cell);
+        dirty[cluster] = true;
+        // A border cell also decides the entrances of the cluster across that border.
+        if (row % clusterSize == 0 && row > 0) dirty[cluster - clusterCols] = true;
+        if (row % clusterSize == clusterSize - 1 && row < rows - 1) dirty[cluster + clusterCols] = true;
+        if (col % clusterSize == 0 && col > 0) dirty[cluster - 1] = true;
+        if (col % clusterSize == clusterSize - 1 && col < cols - 1) dirty[cluster + 1] = true;
+    }
+
+    private void findEntrances(CompactGrid grid, int cluster) {
+        for (int cell : nodes[cluster]) {
+            slot[cell] = -1;
+        }
+        int top = cluster / clusterCols * clusterSize;
+        int left = cluster % clusterCols * clusterSize;
+        int bottom = Math.min(top + clusterSize, rows) - 1;
+        int right = Math.min(left + clusterSize, cols) - 1;
+
+        int count = 0;
+        // Scanned in the same order from both sides of a border, so both pick the same crossings.
+        if (top > 0) count = scanBorder(grid, grid.index(top, left), 1, -cols, right - left + 1, count);
+        if (bottom < rows - 1) count = scanBorder(grid, grid.index(bottom, left), 1, cols, right - left + 1, count);
+        if (left > 0) count = scanBorder(grid, grid.index(top, left), cols, -1, bottom - top + 1, count);
+        if (right < cols - 1) count = scanBorder(grid, grid.index(top, right), cols, 1, bottom - top + 1, count);
+
+        nodes[cluster] = count == 0 ? NO_NODES : Arrays.copyOf(found, count);
+        for (int i = 0; i < count; i++) {
+            slot[found[i]] = i;
+        }
+    }
+
+    /**
+     * Walks {@code length} border cells from {@code first}, {@code along} apart,
+     * and adds entrances for each stretch where both a cell and the cell
+     * {@code across} from it are open.
+     */
+    private int scanBorder(CompactGrid grid, int first, int along, int across, int length, int count) {
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            int cell = first + i * along;
+            boolean open = i < length && !grid.isWall(cell) && !grid.isWall(cell + across);
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int runLength = i - runStart;
+                if (runLength < WIDE_ENTRANCE) {
+                    count = addEntrance(first + (runStart + runLength / 2) * along, count);
+                } else {
+                    count = addEntrance(first + runStart * along, count);
+                    count = addEntrance(first + (i - 1) * along, count);
+                }
+                runStart = -1;
+            }
+        }
+        return count;
+    }
+
+    private int addEntrance(int cell, int count) {
+        for (int i = 0; i < count; i++) {
+            // Corner cells can sit on two borders.
+            if (found[i] == cell) return count;
+        }
+        if (count == found.length) {
+            found = Arrays.copyOf(found, count * 2);
+        }
+        found[count] = cell;
+        return count + 1;
+    }
+
+    private void measure(CompactGrid grid, int cluster) {
+        int[] cells = nodes[cluster];
+        int n = cells.length;
+        int[] table = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            distancesFrom(grid, cells[i], distance, queue);
+            for (int j = 0; j < n; j++) {
+                table[i * n + j] = distance[local(cells[j])];
+            }
+        }
+        distances[cluster] = table;
+    }
+
+    /**
+     * Breadth-first search from {@code from} that never leaves its cluster.
+     * Fills {@code distance}, indexed by {@link #local}, with step counts or
+     * {@link #UNREACHABLE}, and returns the number of cells it expanded. Both
+     * arrays need room for {@code clusterSize * clusterSize} entries.
+     */
+    int distancesFrom(CompactGrid grid, int from, int[] distance, int[] queue) {
+        Arrays.fill(distance, UNREACHABLE);
+        int cluster = cluster(from);
+        int head = 0, tail = 0;
+        distance[local(from)] = 0;
+        queue[tail++] = from;
+        while (head < tail) {
+            int current = queue[head++];
+            int next = distance[local(current)] + 1;
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = grid.neighbor(current, dir);
+                if (neighbor < 0 || cluster(neighbor) != cluster) continue;
+                int position = local(neighbor);
+                if (distance[position] == UNREACHABLE) {
+                    distance[position] = next;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return tail;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,321 @@
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * A 4-connected grid stored as a wall bitset. Cells are addressed by a flat
+ * index ({@code row * cols + col}) and neighbors are computed arithmetically,
+ * so the grid costs one bit per cell no matter how large it gets.
+ *
+ * <p>The bitset normally lives on the heap. A grid opened from a
+ * {@link GridFile} instead reads its walls straight from the mapped file,
+ * so even a huge map is usable without copying it in first.
+ *
+ * <p>Open cells may also carry a terrain cost from 1 to {@link #MAX_COST},
+ * paid on every step into the cell. Every cell costs 1 until a cost is set,
+ * and a grid that never sets one spends no memory on them.
+ */
+public class CompactGrid {
+    public static final int UP = 0;
+    public static final int DOWN = 1;
+    public static final int LEFT = 2;
+    public static final int RIGHT = 3;
+
+    /** Highest terrain cost a cell can have; costs are kept in a byte per cell. */
+    public static final int MAX_COST = 256;
+
+    private final int rows;
+    private final int cols;
+    // Exactly one of these holds the bitset: 64 cells per word, lowest bit first.
+    private final long[] walls;
+    private final LongBuffer mappedWalls;
+    // Cost of entering each cell minus one, allocated when the first cost is set.
+    private byte[] costs;
+    // Written after the walls it covers, so a thread that reads it also sees those walls.
+    private volatile int version;
+    private final List<GridChangeListener> listeners = new CopyOnWriteArrayList<>();
+    // Indexes built from this grid, one per class; see attachment().
+    private final ConcurrentHashMap<Class<?>, Object> attachments = new ConcurrentHashMap<>();
+
+    public CompactGrid(int rows, int cols) {
+        checkSize(rows, cols);
+        this.rows = rows;
+        this.cols = cols;
+        this.walls = new long[wordCount(rows, cols)];
+        this.mappedWalls = null;
+    }
+
+    /** Grid whose walls are read from and written to {@code mappedWalls}, which must hold every word. */
+    CompactGrid(int rows, int cols, LongBuffer mappedWalls) {
+        checkSize(rows, cols);
+        if (mappedWalls.capacity() < wordCount(rows, cols)) {
+            throw new IllegalArgumentException("Wall buffer too small for " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.walls = null;
+        this.mappedWalls = mappedWalls;
+    }
+
+    private static void checkSize(int rows, int cols) {
+        if (rows <= 0 || cols <= 0 || (long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid grid size: " + rows + "x" + cols);
+        }
+    }
+
+    /** Number of longs in the wall bitset of a grid this size. */
+    static int wordCount(int rows, int cols) {
+        return (int) (((long) rows * cols + 63) >>> 6);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int size() {
+        return rows * cols;
+    }
+
+    public int index(int row, int col) {
+        return row * cols + col;
+    }
+
+    public int row(int cell) {
+        return cell / cols;
+    }
+
+    public int col(int cell) {
+        return cell % cols;
+    }
+
+    /** Counts wall and cost changes, so data derived from the grid can tell when it is stale. */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Hash of the size and walls, for checking that data saved alongside a grid
+     * still matches it after a reload. Unlike {@link #version()}, equal grids
+     * always have equal fingerprints.
+     */
+    public long fingerprint() {
+        long hash = (long) rows * 31 + cols;
+        for (int i = 0, n = wordCount(rows, cols); i < n; i++) {
+            hash = hash * 1_000_003L + word(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns this grid's {@code type}, made by {@code factory} on first use.
+     * What is kept here lives exactly as long as the grid, and finding it
+     * takes no lock shared with other grids.
+     */
+    <T> T attachment(Class<T> type, Function<CompactGrid, T> factory) {
+        Object attached = attachments.get(type);
+        if (attached == null) attached = attachments.computeIfAbsent(type, key -> factory.apply(this));
+        return type.cast(attached);
+    }
+
+    public void addChangeListener(GridChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(GridChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean isWall(int cell) {
+        return (word(cell >>> 6) & (1L << cell)) != 0;
+    }
+
+    /** Word {@code i} of the wall bitset. */
+    long word(int i) {
+        return walls != null ? walls[i] : mappedWalls.get(i);
+    }
+
+    private void setWord(int i, long word) {
+        if (walls != null) {
+            walls[i] = word;
+        } else {
+            mappedWalls.put(i, word);
+        }
+    }
+
+    /** True if the walls live in a mapped file rather than on the heap. */
+    public boolean isMapped() {
+        return walls == null;
+    }
+
+    public boolean isWall(int row, int col) {
+        return isWall(index(row, col));
+    }
+
+    public void setWall(int cell, boolean wall) {
+        if (isWall(cell) == wall) return;
+        int i = cell >>> 6;
+        setWord(i, wall ? word(i) | 1L << cell : word(i) & ~(1L << cell));
+        version++;
+        for (GridChangeListener listener : listeners) {
+            listener.wallChanged(cell);
+        }
+    }
+
+    public void setWall(int row, int col, boolean wall) {
+        setWall(index(row, col), wall);
+    }
+
+    public void clearWalls() {
+        if (walls != null) {
+            Arrays.fill(walls, 0L);
+        } else {
+            for (int i = 0, n = wordCount(rows, cols); i < n; i++) {
+                mappedWalls.put(i, 0L);
+            }
+        }
+        version++;
+        for (GridChangeListener listener : listeners) {
+            listener.wallsReset();
+        }
+    }
+
+    /**
+     * Replaces every wall at once with {@code words}, a bitset laid out like
+     * this grid's, as {@link MazeGenerator} produces. Listeners hear a single
+     * reset rather than one change per cell.
+     */
+    public void setWalls(long[] words) {
+        int count = wordCount(rows, cols);
+        if (words.length != count) {
+            throw new IllegalArgumentException("Expected " + count + " words for " + rows + "x" + cols + ": " + words.length);
+        }
+        // Bits past the last cell must stay clear, or fingerprints would differ between equal grids.
+        long last = words[count - 1];
+        int used = (int) ((long) rows * cols & 63);
+        if (used != 0) last &= -1L >>> (64 - used);
+        if (walls != null) {
+            System.arraycopy(words, 0, walls, 0, count - 1);
+        } else {
+            for (int i = 0; i < count - 1; i++) {
+                mappedWalls.put(i, words[i]);
+            }
+        }
+        setWord(count - 1, last);
+        version++;
+        for (GridChangeListener listener : listeners) {
+            listener.wallsReset();
+        }
+    }
+
+    /** Cost of a step into {@code cell}, 1 unless {@link #setCost} changed it. */
+    public int cost(int cell) {
+        return costs == null ? 1 : (costs[cell] & 0xFF) + 1;
+    }
+
+    public int cost(int row, int col) {
+        return cost(index(row, col));
+    }
+
+    /** True once any cell has been given a cost other than 1. */
+    public boolean hasCosts() {
+        return costs != null;
+    }
+
+    public void setCost(int cell, int cost) {
+        if (cost < 1 || cost > MAX_COST) {
+            throw new IllegalArgumentException("Cost must be from 1 to " + MAX_COST + ": " + cost);
+        }
+        if (cost(cell) == cost) return;
+        if (costs == null) {
+            costs = new byte[size()];
+        }
+        costs[cell] = (byte) (cost - 1);
+        version++;
+        for (GridChangeListener listener : listeners) {
+            listener.costChanged(cell);
+        }
+    }
+
+    public void setCost(int row, int col, int cost) {
+        setCost(index(row, col), cost);
+    }
+
+    /** Puts every cell back to cost 1. */
+    public void clearCosts() {
+        if (costs == null) return;
+        costs = null;
+        version++;
+        for (GridChangeListener listener : listeners) {
+            listener.costsReset();
+        }
+    }
+
+    /** The stored costs, each one less than the cell's cost, or null if every cell costs 1. */
+    byte[] costBytes() {
+        return costs;
+    }
+
+    /** Replaces every cost from bytes laid out as {@link #costBytes()} returns them. */
+    void loadCostBytes(byte[] bytes) {
+        if (bytes.length != size()) {
+            throw new IllegalArgumentException("Expected " + size() + " costs, got " + bytes.length);
+        }
+        costs = bytes.clone();
+        version++;
+        for (GridChangeListener listener : listeners) {
+            listener.costsReset();
+        }
+    }
+
+    /**
+     * Returns the open cell next to {@code cell} in direction {@code dir},
+     * or -1 if that step leaves the grid or runs into a wall.
+     */
+    public int neighbor(int cell, int dir) {
+        int next = adjacent(cell, dir);
+        return next < 0 || isWall(next) ? -1 : next;
+    }
+
+    /** Returns the cell next to {@code cell} in direction {@code dir}, wall or not, or -1 off the grid. */
+    public int adjacent(int cell, int dir) {
+        return switch (dir) {
+            case UP -> cell < cols ? -1 : cell - cols;
+            case DOWN -> cell + cols >= rows * cols ? -1 : cell + cols;
+            case LEFT -> cell % cols == 0 ? -1 : cell - 1;
+            case RIGHT -> cell % cols == cols - 1 ? -1 : cell + 1;
+            default -> throw new IllegalArgumentException("Unknown direction: " + dir);
+        };
+    }
+
+    /** Returns the cell one step away in {@code dir}, without bounds or wall checks. */
+    public int step(int cell, int dir) {
+        return switch (dir) {
+            case UP -> cell - cols;
+            case DOWN -> cell + cols;
+            case LEFT -> cell - 1;
+            case RIGHT -> cell + 1;
+            default -> throw new IllegalArgumentException("Unknown direction: " + dir);
+        };
+    }
+
+    /** Returns the direction of the step from {@code from} to the adjacent cell {@code to}. */
+    public int direction(int from, int to) {
+        if (to == from - cols) return UP;
+        if (to == from + cols) return DOWN;
+        if (to == from - 1) return LEFT;
+        if (to == from + 1) return RIGHT;
+        throw new IllegalArgumentException("Cells " + from + " and " + to + " are not adjacent");
+    }
+
+    /** Returns the direction that undoes a step in {@code dir}. */
+    public static int opposite(int dir) {
+        return dir ^ 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,456 @@
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.IntStream;
+
+/**
+ * Which open cells of a {@link CompactGrid} are joined by a path, so that a
+ * goal that is walled off can be turned away before any search floods its
+ * way to that conclusion. Every open cell carries the number of its
+ * connected component, so telling whether two cells are joined is one
+ * comparison.
+ *
+ * <p>The labels are built in parallel: each strip of rows is joined up as a
+ * union-find forest on its own, the strips are stitched together along their
+ * borders, and every cell is then pointed straight at its root.
+ *
+ * <p>After that the index listens to the grid and the next {@link #refresh}
+ * repairs it cell by cell. An opened cell takes the label of the biggest
+ * component around it and the others are relabeled into it. A new wall can
+ * only split its component when its open neighbors are not joined through the
+ * eight cells around it; then a search runs from each of those neighbors in
+ * turn, a step at a time, until all but one have either met another or run
+ * out, and each that ran out is relabeled as a component of its own. Both
+ * repairs cost the smaller side, not the grid. A
+ * {@link GridChangeListener#wallsReset}, or a great many changes at once,
+ * rebuilds the labels instead.
+ *
+ * <p>Lookups take no lock. They read the labels optimistically and only
+ * wait for a read lock if a repair ran at the same time, so many searches can
+ * check their endpoints at once. The index {@link #of} returns is kept on the
+ * grid and goes away with it.
+ */
+public class ComponentIndex implements GridChangeListener {
+    // Rows joined up by one task of the parallel build.
+    private static final int STRIP_ROWS = 64;
+    // Ring around a cell, each step to a 4-neighbor of the last: N, NE, E, SE, S, SW, W, NW.
+    private static final int[] RING_ROWS = {-1, -1, 0, 1, 1, 1, 0, -1};
+    private static final int[] RING_COLS = {0, 1, 1, 1, 0, -1, -1, -1};
+
+    private final int rows;
+    private final int cols;
+    // Component of every open cell, -1 for walls. While building, the union-find parent of every open cell.
+    private final int[] component;
+    // Cells in each component, by component; 0 for numbers not in use.
+    private final int[] size;
+    private int nextFree;
+    // Held for writing while refresh() changes the labels; lookups validate against it.
+    private final StampedLock labels = new StampedLock();
+
+    // Set by wallChanged/wallsReset, cleared by refresh(); guarded by this.
+    private final ChangeLog changes;
+    // True while the log is waiting for refresh(), so of() can skip it without locking.
+    private volatile boolean outdated = true;
+
+    // Scratch for the searches that split and merge components, which hold the lock.
+    private int[] mark;
+    private int epoch;
+    private final int[][] queues = new int[4][16];
+    private final int[] heads = new int[4];
+    private final int[] tails = new int[4];
+    private final int[] group = new int[4];
+
+    public ComponentIndex(CompactGrid grid) {
+        this.rows = grid.rows();
+        this.cols = grid.cols();
+        this.component = new int[grid.size()];
+        this.size = new int[grid.size()];
+        this.changes = ChangeLog.forGrid(grid);
+        grid.addChangeListener(this);
+    }
+
+    /** Returns the index for the grid's current walls, repairing it for whatever changed since the last call. */
+    public static ComponentIndex of(CompactGrid grid) {
+        ComponentIndex index = grid.attachment(ComponentIndex.class, ComponentIndex::new);
+        if (index.outdated) index.refresh(grid);
+        return index;
+    }
+
+    /** Returns true if both cells are open and a path joins them, as of the last {@link #refresh}. */
+    public boolean connected(int a, int b) {
+        long stamp = labels.tryOptimisticRead();
+        boolean joined = component[a] >= 0 && component[a] == component[b];
+        if (labels.validate(stamp)) return joined;
+        stamp = labels.readLock();
+        try {
+            return component[a] >= 0 && component[a] == component[b];
+        } finally {
+            labels.unlockRead(stamp);
+        }
+    }
+
+    /** Returns the number of the component {@code cell} is in, or -1 for a wall, as of the last {@link #refresh}. */
+    public int component(int cell) {
+        long stamp = labels.tryOptimisticRead();
+        int label = component[cell];
+        if (labels.validate(stamp)) return label;
+        stamp = labels.readLock();
+        try {
+            return component[cell];
+        } finally {
+            labels.unlockRead(stamp);
+        }
+    }
+
+    /** Returns how many open cells the component of {@code cell} has, or 0 for a wall. */
+    public int componentSize(int cell) {
+        long stamp = labels.tryOptimisticRead();
+        int label = component[cell];
+        int cells = label < 0 ? 0 : size[label];
+        if (labels.validate(stamp)) return cells;
+        stamp = labels.readLock();
+        try {
+            return component[cell] < 0 ? 0 : size[component[cell]];
+        } finally {
+            labels.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public synchronized void wallChanged(int cell) {
+        changes.changed(cell);
+        outdated = true;
+    }
+
+    @Override
+    public synchronized void wallsReset() {
+        changes.reset();
+        outdated = true;
+    }
+
+    public void close(CompactGrid grid) {
+        grid.removeChangeListener(this);
+    }
+
+    /**
+     * Brings the index up to date with the grid's walls. Returns true if
+     * that took a full rebuild rather than repairs.
+     */
+    public synchronized boolean refresh(CompactGrid grid) {
+        if (!outdated) return false;
+        long stamp = labels.writeLock();
+        try {
+            boolean rebuilt = changes.rebuild();
+            if (rebuilt) {
+                build(grid);
+            } else {
+                // The index's own walls, the cells labeled -1, move to the grid's one changed cell at a time.
+                for (int i = 0; i < changes.size(); i++) {
+                    int cell = changes.cell(i);
+                    boolean wall = grid.isWall(cell);
+                    if (wall && component[cell] >= 0) {
+                        closeCell(cell);
+                    } else if (!wall && component[cell] < 0) {
+                        openCell(cell);
+                    }
+                }
+            }
+            changes.caughtUp(grid.version());
+            outdated = false;
+            return rebuilt;
+        } finally {
+            labels.unlockWrite(stamp);
+        }
+    }
+
+    /** Labels {@code cell}, merging every component around it into the biggest. */
+    private void openCell(int cell) {
+        int keep = -1;
+        for (int dir = 0; dir < 4; dir++) {
+            int neighbor = neighbor(cell, dir);
+            if (neighbor >= 0 && (keep < 0 || size[component[neighbor]] > size[keep])) keep = component[neighbor];
+        }
+        if (keep < 0) {
+            keep = freeNumber();
+        }
+        for (int dir = 0; dir < 4; dir++) {
+            int neighbor = neighbor(cell, dir);
+            if (neighbor >= 0 && component[neighbor] != keep) {
+                size[keep] += size[component[neighbor]];
+                size[component[neighbor]] = 0;
+                relabel(neighbor, keep);
+            }
+        }
+        component[cell] = keep;
+        size[keep]++;
+    }
+
+    /** Unlabels {@code cell} and splits its component if the cell was all that joined its parts. */
+    private void closeCell(int cell) {
+        int label = component[cell];
+        component[cell] = -1;
+        size[label]--;
+        int sides = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            int neighbor = neighbor(cell, dir);
+            if (neighbor >= 0) {
+                queues[sides][0] = neighbor;
+                sides++;
+            }
+        }
+        if (sides > 1 && !ringJoined(cell)) split(label, sides);
+    }
+
+    /**
+     * Returns true if the open 4-neighbors of {@code cell} are all joined
+     * through the open cells of the ring around it, so walling the cell off
+     * cannot split its component.
+     */
+    private boolean ringJoined(int cell) {
+        int row = cell / cols, col = cell % cols;
+        boolean[] open = new boolean[8];
+        for (int i = 0; i < 8; i++) {
+            int r = row + RING_ROWS[i], c = col + RING_COLS[i];
+            open[i] = r >= 0 && r < rows && c >= 0 && c < cols && component[r * cols + c] >= 0;
+        }
+        // Count the open stretches of the ring that hold a 4-neighbor, the even positions.
+        int start = 0;
+        while (start < 8 && open[start]) start++;
+        if (start == 8) return true;
+        int stretches = 0;
+        boolean inStretch = false, holdsNeighbor = false;
+        for (int k = 1; k <= 8; k++) {
+            int i = (start + k) & 7;
+            if (open[i]) {
+                inStretch = true;
+                holdsNeighbor |= (i & 1) == 0;
+            } else if (inStretch) {
+                if (holdsNeighbor) stretches++;
+                inStretch = false;
+                holdsNeighbor = false;
+            }
+        }
+        return stretches <= 1;
+    }
+
+    /**
+     * Searches from the first cell of each of the {@code sides} queues, one
+     * step of each in turn. Sides that meet join a group. Stops once at most
+     * one group still has cells to search; every other group has then seen
+     * all of a component of its own and gets a new number. If none is left
+     * searching, the group that saw the most cells keeps {@code label}.
+     */
+    private void split(int label, int sides) {
+        if (mark == null) mark = new int[component.length];
+        if (++epoch > (Integer.MAX_VALUE >>> 2)) {
+            Arrays.fill(mark, 0);
+            epoch = 1;
+        }
+        for (int side = 0; side < sides; side++) {
+            heads[side] = 0;
+            tails[side] = 1;
+            group[side] = side;
+            mark[queues[side][0]] = epoch << 2 | side;
+        }
+        while (true) {
+            int groups = 0, searching = 0;
+            for (int side = 0; side < sides; side++) {
+                if (groupOf(side) != side) continue;
+                groups++;
+                if (isSearching(side, sides)) searching++;
+            }
+            if (groups == 1) return;
+            if (searching <= 1) break;
+            for (int side = 0; side < sides; side++) {
+                if (heads[side] < tails[side]) step(side);
+            }
+        }
+
+        int keep = -1;
+        for (int side = 0; side < sides; side++) {
+            if (groupOf(side) != side) continue;
+            if (isSearching(side, sides)) {
+                keep = side;
+                break;
+            }
+            if (keep < 0 || groupCells(side, sides) > groupCells(keep, sides)) keep = side;
+        }
+        for (int g = 0; g < sides; g++) {
+            if (groupOf(g) != g || g == keep) continue;
+            int number = freeNumber();
+            for (int side = 0; side < sides; side++) {
+                if (groupOf(side) != g) continue;
+                for (int i = 0; i < tails[side]; i++) {
+                    component[queues[side][i]] = number;
+                }
+                size[number] += tails[side];
+                size[label] -= tails[side];
+            }
+        }
+    }
+
+    /** Takes one cell off the queue of {@code side} and queues its unseen neighbors, joining any side it meets. */
+    private void step(int side) {
+        int cell = queues[side][heads[side]++];
+        for (int dir = 0; dir < 4; dir++) {
+            int neighbor = neighbor(cell, dir);
+            if (neighbor < 0) continue;
+            int seen = mark[neighbor];
+            if (seen >>> 2 == epoch) {
+                joinGroups(side, seen & 3);
+                continue;
+            }
+            mark[neighbor] = epoch << 2 | side;
+            if (tails[side] == queues[side].length) {
+                queues[side] = Arrays.copyOf(queues[side], tails[side] * 2);
+            }
+            queues[side][tails[side]++] = neighbor;
+        }
+    }
+
+    private int groupOf(int side) {
+        while (group[side] != side) {
+            side = group[side];
+        }
+        return side;
+    }
+
+    private void joinGroups(int a, int b) {
+        int ga = groupOf(a), gb = groupOf(b);
+        if (ga != gb) group[Math.max(ga, gb)] = Math.min(ga, gb);
+    }
+
+    private boolean isSearching(int g, int sides) {
+        for (int side = 0; side < sides; side++) {
+            if (groupOf(side) == g && heads[side] < tails[side]) return true;
+        }
+        return false;
+    }
+
+    private int groupCells(int g, int sides) {
+        int cells = 0;
+        for (int side = 0; side < sides; side++) {
+            if (groupOf(side) == g) cells += tails[side];
+        }
+        return cells;
+    }
+
+    /** Gives the component {@code from} is in the number {@code to}, by a flood over its cells. */
+    private void relabel(int from, int to) {
+        int label = component[from];
+        int[] queue = queues[0];
+        int head = 0, tail = 0;
+        component[from] = to;
+        queue[tail++] = from;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = neighbor(cell, dir);
+                if (neighbor >= 0 && component[neighbor] == label) {
+                    component[neighbor] = to;
+                    if (tail == queue.length) {
+                        queue = queues[0] = Arrays.copyOf(queue, tail * 2);
+                    }
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    /** Returns a component number no cell carries. */
+    private int freeNumber() {
+        // There are more numbers than there can be components, as two open neighbors always share one.
+        for (int tries = 0; tries < size.length; tries++) {
+            int number = nextFree;
+            nextFree = nextFree + 1 == size.length ? 0 : nextFree + 1;
+            if (size[number] == 0) return number;
+        }
+        throw new IllegalStateException("No free component number");
+    }
+
+    /** The labeled cell next to {@code cell} in {@code dir}, or -1 off the grid or at a wall. */
+    private int neighbor(int cell, int dir) {
+        int next = switch (dir) {
+            case CompactGrid.UP -> cell < cols ? -1 : cell - cols;
+            case CompactGrid.DOWN -> cell + cols >= component.length ? -1 : cell + cols;
+            case CompactGrid.LEFT -> cell % cols == 0 ? -1 : cell - 1;
+            default -> cell % cols == cols - 1 ? -1 : cell + 1;
+        };
+        return next < 0 || component[next] < 0 ? -1 : next;
+    }
+
+    /** Joins up every strip of rows in parallel, stitches their borders, then labels every cell with its root. */
+    private void build(CompactGrid grid) {
+        int strips = (rows + STRIP_ROWS - 1) / STRIP_ROWS;
+        IntStream.range(0, strips).parallel().forEach(strip -> joinStrip(grid, strip * STRIP_ROWS,
+                Math.min(rows, (strip + 1) * STRIP_ROWS)));
+        for (int row = STRIP_ROWS; row < rows; row += STRIP_ROWS) {
+            for (int cell = row * cols, last = cell + cols; cell < last; cell++) {
+                if (component[cell] >= 0 && component[cell - cols] >= 0) union(cell, cell - cols);
+            }
+        }
+        // Flattening races only with itself, and every write replaces a parent with an ancestor on the same path.
+        IntStream.range(0, strips).parallel().forEach(strip -> {
+            for (int cell = strip * STRIP_ROWS * cols, last = Math.min(rows, (strip + 1) * STRIP_ROWS) * cols;
+                 cell < last; cell++) {
+                if (component[cell] >= 0) component[cell] = root(cell);
+            }
+        });
+        Arrays.fill(size, 0);
+        for (int label : component) {
+            if (label >= 0) size[label]++;
+        }
+    }
+
+    /** Joins the open cells of rows {@code from} to {@code to}, exclusive, touching no other rows. */
+    private void joinStrip(CompactGrid grid, int from, int to) {
+        for (int row = from; row < to; row++) {
+            // Root of the open run the scan is in, or -1 at a wall; cells of a run hang straight off it.
+            int run = -1;
+            for (int col = 0, cell = row * cols; col < cols; col++, cell++) {
+                if (grid.isWall(cell)) {
+                    component[cell] = -1;
+                    run = -1;
+                    continue;
+                }
+                boolean continued = run >= 0;
+                if (!continued) {
+                    component[cell] = run = cell;
+                } else {
+                    component[cell] = run;
+                }
+                // Joined once where the run starts to touch a run of the row above, which is then one tree.
+                if (row > from && component[cell - cols] >= 0 && !(continued && component[cell - cols - 1] >= 0)) {
+                    run = union(run, cell - cols);
+                }
+            }
+        }
+    }
+
+    /** Returns the root of {@code cell}, halving the path on the way. */
+    private int find(int cell) {
+        while (component[cell] != cell) {
+            component[cell] = component[component[cell]];
+            cell = component[cell];
+        }
+        return cell;
+    }
+
+    /** Returns the root of {@code cell} without writing to the forest. */
+    private int root(int cell) {
+        while (component[cell] != cell) {
+            cell = component[cell];
+        }
+        return cell;
+    }
+
+    /** Merges two trees, keeping the lower root so that roots settle towards the first cells; returns it. */
+    private int union(int a, int b) {
+        int rootA = find(a), rootB = find(b);
+        if (rootA < rootB) {
+            component[rootB] = rootA;
+            return rootA;
+        }
+        component[rootA] = rootB;
+        return rootB;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,206 @@
+import java.util.Arrays;
+
+/**
+ * The cost from every cell to one goal, and the first step to take from each
+ * cell to get there. One backward Dijkstra from the goal serves any number of
+ * agents: wherever one stands, its next move is a single lookup. Steps pay
+ * the terrain cost of the cell they enter, as in {@link Algorithms#dijkstra},
+ * so on a grid without costs the distances are step counts. A field is 5
+ * bytes a cell: an {@code int} distance and a {@code byte} direction.
+ *
+ * <p>Fields are made and kept current by a {@link FlowFieldCache}. After a
+ * few cells change, only the cells whose route ran through one of them are
+ * recomputed, along with whatever a newly opened or cheaper cell improves.
+ * A field may be read from any thread, but not while its cache brings it up
+ * to date.
+ */
+public class FlowField {
+    /** Direction of cells with no step to take: the goal itself, walls, and cells that cannot reach the goal. */
+    public static final int NO_STEP = -1;
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final int goal;
+    private final int cols;
+    private final int[] distance;
+    private final byte[] direction;
+    // Guarded by the cache.
+    private final ChangeLog changes;
+
+    // Scratch for repairs.
+    private final RadixHeap queue = new RadixHeap();
+    private int[] affected = new int[16];
+
+    FlowField(CompactGrid grid, int goal) {
+        this.goal = goal;
+        this.cols = grid.cols();
+        this.distance = new int[grid.size()];
+        this.direction = new byte[grid.size()];
+        this.changes = ChangeLog.forGrid(grid);
+    }
+
+    public int goal() {
+        return goal;
+    }
+
+    /** The {@link CompactGrid#version()} the field was last brought up to date with. */
+    public int version() {
+        return changes.version();
+    }
+
+    /** Returns the cost of the cheapest path from {@code cell} to the goal, or -1 if there is none. */
+    public int distance(int cell) {
+        return distance[cell] == UNREACHABLE ? -1 : distance[cell];
+    }
+
+    /** Returns the direction of the first step from {@code cell} towards the goal, or {@link #NO_STEP}. */
+    public int direction(int cell) {
+        return direction[cell];
+    }
+
+    /** Returns the cell to step to from {@code cell} towards the goal, or -1 if there is no step to take. */
+    public int next(int cell) {
+        return switch (direction[cell]) {
+            case CompactGrid.UP -> cell - cols;
+            case CompactGrid.DOWN -> cell + cols;
+            case CompactGrid.LEFT -> cell - 1;
+            case CompactGrid.RIGHT -> cell + 1;
+            default -> -1;
+        };
+    }
+
+    /** Returns true if nothing changed in the grid since the field was last brought up to date. */
+    boolean isCurrent(CompactGrid grid) {
+        return changes.isCurrent(grid.version());
+    }
+
+    void changed(int cell) {
+        changes.changed(cell);
+    }
+
+    void invalidate() {
+        changes.reset();
+    }
+
+    /** Brings the field up to date with the grid; returns false if it already was. */
+    boolean update(CompactGrid grid) {
+        if (changes.isEmpty()) {
+            changes.caughtUp(grid.version());
+            return false;
+        }
+        if (changes.rebuild() || changes.contains(goal)) {
+            build(grid);
+        } else {
+            repair(grid);
+        }
+        changes.caughtUp(grid.version());
+        return true;
+    }
+
+    private void build(CompactGrid grid) {
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(direction, (byte) NO_STEP);
+        queue.clear();
+        if (grid.isWall(goal)) return;
+        distance[goal] = 0;
+        if (!grid.hasCosts()) {
+            breadthFirst(grid);
+            return;
+        }
+        queue.add(goal, 0);
+        propagate(grid);
+    }
+
+    /** Fills the field outward from the goal a step at a time, which is all Dijkstra does when every step costs 1. */
+    private void breadthFirst(CompactGrid grid) {
+        int[] order = new int[distance.length];
+        int head = 0, tail = 0;
+        order[tail++] = goal;
+        while (head < tail) {
+            int cell = order[head++];
+            int through = distance[cell] + 1;
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = grid.neighbor(cell, dir);
+                if (neighbor >= 0 && distance[neighbor] == UNREACHABLE) {
+                    distance[neighbor] = through;
+                    direction[neighbor] = (byte) CompactGrid.opposite(dir);
+                    order[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets every cell whose route ran through a changed cell, seeds them
+     * again from their neighbors whose routes still hold, and lets Dijkstra
+     * settle them, spreading any improvement past them as it goes.
+     */
+    private void repair(CompactGrid grid) {
+        int count = 0;
+        for (int i = 0; i < changes.size(); i++) {
+            int cell = changes.cell(i);
+            // A cell that could not reach the goal before is on nobody's route.
+            if (distance[cell] == UNREACHABLE) {
+                count = addAffected(cell, count);
+                continue;
+            }
+            distance[cell] = UNREACHABLE;
+            direction[cell] = NO_STEP;
+            int first = count;
+            count = addAffected(cell, count);
+            for (int k = first; k < count; k++) {
+                int through = affected[k];
+                for (int dir = 0; dir < 4; dir++) {
+                    int upstream = grid.adjacent(through, dir);
+                    if (upstream >= 0 && direction[upstream] == CompactGrid.opposite(dir)) {
+                        distance[upstream] = UNREACHABLE;
+                        direction[upstream] = NO_STEP;
+                        count = addAffected(upstream, count);
+                    }
+                }
+            }
+        }
+
+        queue.clear();
+        for (int i = 0; i < count; i++) {
+            int cell = affected[i];
+            if (grid.isWall(cell)) continue;
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = grid.neighbor(cell, dir);
+                if (neighbor >= 0 && distance[neighbor] != UNREACHABLE
+                        && distance[neighbor] + grid.cost(neighbor) < distance[cell]) {
+                    distance[cell] = distance[neighbor] + grid.cost(neighbor);
+                    direction[cell] = (byte) dir;
+                }
+            }
+            if (distance[cell] != UNREACHABLE) queue.add(cell, distance[cell]);
+        }
+        propagate(grid);
+    }
+
+    private int addAffected(int cell, int count) {
+        if (count == affected.length) {
+            affected = Arrays.copyOf(affected, count * 2);
+        }
+        affected[count] = cell;
+        return count + 1;
+    }
+
+    /** Runs Dijkstra backward from the queued cells, lowering whatever they reach more cheaply. */
+    private void propagate(CompactGrid grid) {
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            // A cell that improved is queued again; the older copy is skipped.
+            if (queue.lastKey() != distance[cell]) continue;
+            int through = distance[cell] + grid.cost(cell);
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = grid.neighbor(cell, dir);
+                if (neighbor >= 0 && through < distance[neighbor]) {
+                    distance[neighbor] = through;
+                    direction[neighbor] = (byte) CompactGrid.opposite(dir);
+                    queue.add(neighbor, through);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
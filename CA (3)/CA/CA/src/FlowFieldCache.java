@@ -0,0 +1,125 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Least-recently-used cache of {@link FlowField}s for one grid, one per goal,
+ * for moving many agents towards a few shared goals. It listens to the grid,
+ * and a field asked for after a few cells changed is repaired around them
+ * rather than built again; a field always matches the
+ * {@link CompactGrid#version()} it was last handed out at. Fields asked for
+ * together are built or repaired in parallel, one goal per task.
+ *
+ * <p>Fields are handed out shared and are brought up to date in place, so
+ * agents must not read one while a call to this cache may be updating it.
+ * Call {@link #close} to stop listening to the grid.
+ */
+public class FlowFieldCache implements GridChangeListener {
+    private final CompactGrid grid;
+    private final int maxFields;
+    private final LinkedHashMap<Integer, FlowField> fields = new LinkedHashMap<>(16, 0.75f, true);
+    private long builds;
+    private long updates;
+
+    /** Creates a cache keeping fields for at most {@code maxFields} goals. */
+    public FlowFieldCache(CompactGrid grid, int maxFields) {
+        if (maxFields <= 0) {
+            throw new IllegalArgumentException("Cache must hold at least one field: " + maxFields);
+        }
+        this.grid = grid;
+        this.maxFields = maxFields;
+        grid.addChangeListener(this);
+    }
+
+    /** Returns the field for {@code goal}, current with the grid's walls and costs. */
+    public FlowField field(int goal) {
+        return fields(goal)[0];
+    }
+
+    /**
+     * Returns the fields for {@code goals}, in the same order, current with
+     * the grid's walls and costs. Those that are missing or out of date are
+     * computed in parallel. Asking for more distinct goals than the cache
+     * holds is an error, since it would evict fields it is handing out.
+     */
+    public synchronized FlowField[] fields(int... goals) {
+        if (Arrays.stream(goals).distinct().count() > maxFields) {
+            throw new IllegalArgumentException("More goals than the cache holds: " + maxFields);
+        }
+        FlowField[] result = new FlowField[goals.length];
+        List<FlowField> outdated = new ArrayList<>();
+        for (int i = 0; i < goals.length; i++) {
+            if (goals[i] < 0 || goals[i] >= grid.size()) {
+                throw new IllegalArgumentException("Goal outside the grid: " + goals[i]);
+            }
+            FlowField field = fields.get(goals[i]);
+            if (field == null) {
+                field = new FlowField(grid, goals[i]);
+                fields.put(goals[i], field);
+                builds++;
+            }
+            // A goal asked for twice must not be updated by two tasks at once.
+            if (!field.isCurrent(grid) && !outdated.contains(field)) outdated.add(field);
+            result[i] = field;
+        }
+        outdated.parallelStream().forEach(field -> field.update(grid));
+        updates += outdated.size();
+
+        Iterator<FlowField> eldest = fields.values().iterator();
+        while (fields.size() > maxFields) {
+            eldest.next();
+            eldest.remove();
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void wallChanged(int cell) {
+        for (FlowField field : fields.values()) {
+            field.changed(cell);
+        }
+    }
+
+    @Override
+    public synchronized void wallsReset() {
+        for (FlowField field : fields.values()) {
+            field.invalidate();
+        }
+    }
+
+    @Override
+    public void costChanged(int cell) {
+        wallChanged(cell);
+    }
+
+    @Override
+    public void costsReset() {
+        wallsReset();
+    }
+
+    public void close() {
+        grid.removeChangeListener(this);
+    }
+
+    public synchronized int size() {
+        return fields.size();
+    }
+
+    /** Fields built from scratch because their goal was not cached. */
+    public synchronized long builds() {
+        return builds;
+    }
+
+    /** Fields brought up to date, whether built new, rebuilt or repaired. */
+    public synchronized long updates() {
+        return updates;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("FlowFieldCache[%d/%d fields, %d built, %d updated]", fields.size(), maxFields,
+                builds, updates);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Lock-free record of which of two concurrently growing frontiers has reached
+ * each cell. Every entry packs the epoch of the search that wrote it with one
+ * bit per side, so a new search starts in O(1) like {@link SearchContext}.
+ */
+class FrontierMarks {
+    static final int FORWARD = 0;
+    static final int BACKWARD = 1;
+
+    private final AtomicIntegerArray marks;
+    private int epoch;
+
+    FrontierMarks(int size) {
+        marks = new AtomicIntegerArray(size);
+    }
+
+    /** Starts a new search; must not overlap with calls to {@link #mark}. */
+    void begin() {
+        epoch++;
+        if (epoch >= 1 << 29) {
+            for (int i = 0; i < marks.length(); i++) {
+                marks.set(i, 0);
+            }
+            epoch = 1;
+        }
+    }
+
+    /**
+     * Marks {@code cell} as reached by {@code side}. Returns true if the other
+     * side had already reached it. When both sides mark the same cell at once,
+     * exactly one of them gets true.
+     */
+    boolean mark(int cell, int side) {
+        int stamp = epoch << 2;
+        int mine = 1 << side;
+        while (true) {
+            int old = marks.get(cell);
+            int bits = (old >>> 2) == epoch ? old & 3 : 0;
+            if ((bits & mine) != 0) return false;
+            if (marks.compareAndSet(cell, old, stamp | bits | mine)) {
+                return bits != 0;
+            }
+        }
+    }
+}
\ No newline at end of file
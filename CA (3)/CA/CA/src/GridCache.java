@@ -0,0 +1,63 @@
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A value derived from a grid's walls, such as a precomputed table, kept on
+ * the grid through {@link CompactGrid#attachment} and built again once the
+ * walls change. The build runs on the thread that asked first, outside any
+ * lock another grid could be waiting on; callers asking while it is under
+ * way wait for that build rather than starting their own.
+ */
+abstract class GridCache<T> {
+    // Guarded by this. Built, or still being built by whoever asked first.
+    private CompletableFuture<T> value;
+
+    /** Builds the value for the grid's current walls. */
+    abstract T build(CompactGrid grid);
+
+    /** Returns true if {@code value} still matches the grid's walls. */
+    abstract boolean isCurrent(T value, CompactGrid grid);
+
+    /** Returns the value for the grid's current walls, building it if they changed since the last call. */
+    T get(CompactGrid grid) {
+        while (true) {
+            CompletableFuture<T> build;
+            boolean building = false;
+            synchronized (this) {
+                build = value;
+                if (build == null || build.isDone() && !isCurrent(build.join(), grid)) {
+                    build = value = new CompletableFuture<>();
+                    building = true;
+                }
+            }
+            if (building) {
+                try {
+                    build.complete(build(grid));
+                } catch (RuntimeException | Error e) {
+                    build.completeExceptionally(e);
+                    clear(build);
+                    throw e;
+                }
+                return build.join();
+            }
+            T built = build.join();
+            // A build started before the walls last changed is of no use; go round and start another.
+            if (isCurrent(built, grid)) return built;
+        }
+    }
+
+    /** Returns the value if one is already built for the grid's current walls, or null rather than build one. */
+    synchronized T current(CompactGrid grid) {
+        if (value == null || !value.isDone() || value.isCompletedExceptionally()) return null;
+        T built = value.join();
+        return isCurrent(built, grid) ? built : null;
+    }
+
+    /** Keeps {@code loaded}, for example read from a file, in place of building one. */
+    synchronized void set(T loaded) {
+        value = CompletableFuture.completedFuture(loaded);
+    }
+
+    private synchronized void clear(CompletableFuture<T> failed) {
+        if (value == failed) value = null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+/**
+ * Notified when the walls or terrain costs of a {@link CompactGrid} change, so that planners
+ * and indexes built on the grid can repair themselves instead of starting over.
+ * Called on whichever thread changed the grid.
+ */
+public interface GridChangeListener {
+    /** A single cell turned into a wall or back into open ground. */
+    void wallChanged(int cell);
+
+    /** Many cells changed at once, for example by {@link CompactGrid#clearWalls()}. */
+    void wallsReset();
+
+    /**
+     * A single cell's terrain cost changed. Ignored by default, for listeners
+     * that treat every step as costing 1.
+     */
+    default void costChanged(int cell) {
+    }
+
+    /** Every cell's terrain cost changed at once, for example by {@link CompactGrid#clearCosts()}. */
+    default void costsReset() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,251 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Binary grid file: a small header, the wall bitset exactly as
+ * {@link CompactGrid} holds it, and optional tagged sections for data
+ * precomputed from the walls, such as a {@link LandmarkTable}. A grid with
+ * terrain costs saves them in a {@link #COSTS} section, one byte per cell as
+ * {@link CompactGrid} stores them. Everything is little-endian and 8-byte
+ * aligned.
+ *
+ * <pre>
+ *   0  int   magic "PFGD"
+ *   4  int   format version (1)
+ *   8  int   rows
+ *  12  int   cols
+ *  16  int   section count n
+ *  20  int   reserved
+ *  24  long  walls offset
+ *  32  long  walls length in bytes
+ *  40  n x { int tag, int reserved, long offset, long length }
+ *      wall words, then section bodies
+ * </pre>
+ *
+ * <p>{@link #open} maps the file instead of reading it, so opening costs the
+ * same for any size and the grid reads its walls straight from the page
+ * cache. The mapping is private: walls can still be edited, but edits never
+ * reach the file. Use {@link #write} to save them. A file without write
+ * permission opens read-only, and setting walls on its grid throws
+ * {@link java.nio.ReadOnlyBufferException}. Costs are small and always
+ * editable, so they are copied onto the heap rather than mapped.
+ */
+public class GridFile {
+    /** Tag of the section holding terrain costs. */
+    public static final String COSTS = "COST";
+
+    private static final int MAGIC = 0x44474650; // "PFGD" read as a little-endian int
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+    private static final int SECTION_ENTRY_BYTES = 24;
+    private static final int MAX_SECTIONS = 1024;
+
+    private final CompactGrid grid;
+    private final Map<String, ByteBuffer> sections;
+
+    private GridFile(CompactGrid grid, Map<String, ByteBuffer> sections) {
+        this.grid = grid;
+        this.sections = sections;
+    }
+
+    public CompactGrid grid() {
+        return grid;
+    }
+
+    public Set<String> sections() {
+        return sections.keySet();
+    }
+
+    /** Returns a read-only little-endian view of the section, or null if the file has none with that tag. */
+    public ByteBuffer section(String tag) {
+        ByteBuffer section = sections.get(tag);
+        return section == null ? null : section.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Maps {@code file} and returns a grid backed by it, along with its sections. */
+    public static GridFile open(Path file) throws IOException {
+        try {
+            // A private mapping still needs a writable channel, even though nothing is written back.
+            return open(file, true);
+        } catch (AccessDeniedException e) {
+            return open(file, false);
+        }
+    }
+
+    private static GridFile open(Path file, boolean writable) throws IOException {
+        FileChannel.MapMode wallMode = writable ? FileChannel.MapMode.PRIVATE : FileChannel.MapMode.READ_ONLY;
+        try (FileChannel channel = writable
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = read(channel, 0, HEADER_BYTES, file);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a grid file: " + file);
+            }
+            int formatVersion = header.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported grid file version " + formatVersion + ": " + file);
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            int sectionCount = header.getInt();
+            header.getInt();
+            long wallsOffset = header.getLong();
+            long wallsLength = header.getLong();
+            if (rows <= 0 || cols <= 0 || (long) rows * cols > Integer.MAX_VALUE
+                    || sectionCount < 0 || sectionCount > MAX_SECTIONS
+                    || wallsLength != CompactGrid.wordCount(rows, cols) * 8L) {
+                throw new IOException("Corrupt grid file header: " + file);
+            }
+
+            ByteBuffer walls = map(channel, wallMode, wallsOffset, wallsLength, file);
+            CompactGrid grid = new CompactGrid(rows, cols, walls.asLongBuffer());
+
+            Map<String, ByteBuffer> sections = new LinkedHashMap<>();
+            ByteBuffer table = read(channel, HEADER_BYTES, sectionCount * SECTION_ENTRY_BYTES, file);
+            for (int i = 0; i < sectionCount; i++) {
+                String tag = tagName(table.getInt());
+                table.getInt();
+                long offset = table.getLong();
+                long length = table.getLong();
+                sections.put(tag, map(channel, FileChannel.MapMode.READ_ONLY, offset, length, file));
+            }
+            ByteBuffer costs = sections.get(COSTS);
+            if (costs != null) {
+                if (costs.remaining() != grid.size()) {
+                    throw new IOException("Cost section does not match the grid size: " + file);
+                }
+                byte[] bytes = new byte[grid.size()];
+                costs.duplicate().get(bytes);
+                grid.loadCostBytes(bytes);
+            }
+            // The mappings stay valid after the channel is closed.
+            return new GridFile(grid, Collections.unmodifiableMap(sections));
+        }
+    }
+
+    public static void write(Path file, CompactGrid grid) throws IOException {
+        write(file, grid, Map.of());
+    }
+
+    /**
+     * Writes the grid's current walls and costs and the given sections, keyed
+     * by tags of up to four ASCII characters. Section contents are written from
+     * their position to their limit.
+     */
+    public static void write(Path file, CompactGrid grid, Map<String, ByteBuffer> sections) throws IOException {
+        if (grid.hasCosts() && !sections.containsKey(COSTS)) {
+            Map<String, ByteBuffer> withCosts = new LinkedHashMap<>(sections);
+            withCosts.put(COSTS, ByteBuffer.wrap(grid.costBytes()));
+            sections = withCosts;
+        }
+        if (sections.size() > MAX_SECTIONS) {
+            throw new IllegalArgumentException("At most " + MAX_SECTIONS + " sections per file");
+        }
+        int wordCount = CompactGrid.wordCount(grid.rows(), grid.cols());
+        long wallsOffset = align(HEADER_BYTES + (long) sections.size() * SECTION_ENTRY_BYTES);
+        long wallsLength = wordCount * 8L;
+
+        ByteBuffer header = ByteBuffer.allocate((int) wallsOffset).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(grid.rows()).putInt(grid.cols())
+                .putInt(sections.size()).putInt(0).putLong(wallsOffset).putLong(wallsLength);
+        long offset = align(wallsOffset + wallsLength);
+        for (Map.Entry<String, ByteBuffer> section : sections.entrySet()) {
+            long length = section.getValue().remaining();
+            header.putInt(tagValue(section.getKey())).putInt(0).putLong(offset).putLong(length);
+            offset = align(offset + length);
+        }
+        header.clear();
+
+        // Written beside the target and renamed over it, so a grid mapped from the old file keeps working.
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            writeFully(channel, header, 0);
+
+            // Copied out in blocks, so a mapped grid never has to fit on the heap.
+            ByteBuffer block = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            long position = wallsOffset;
+            for (int i = 0; i < wordCount; ) {
+                block.clear();
+                while (i < wordCount && block.remaining() >= 8) {
+                    block.putLong(grid.word(i++));
+                }
+                block.flip();
+                position += writeFully(channel, block, position);
+            }
+
+            position = align(position);
+            for (ByteBuffer section : sections.values()) {
+                position = align(position + writeFully(channel, section.duplicate(), position));
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length, Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated grid file: " + file);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static ByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long offset, long length, Path file)
+            throws IOException {
+        if (offset < 0 || length < 0 || offset + length > channel.size()) {
+            throw new IOException("Truncated grid file: " + file);
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Section of " + length + " bytes is too large to map: " + file);
+        }
+        return channel.map(mode, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static int tagValue(String tag) {
+        byte[] bytes = tag.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length == 0 || bytes.length > 4 || !tag.equals(new String(bytes, StandardCharsets.US_ASCII))) {
+            throw new IllegalArgumentException("Section tags are 1 to 4 ASCII characters: " + tag);
+        }
+        int value = 0;
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            value = value << 8 | bytes[i] & 0xFF;
+        }
+        return value;
+    }
+
+    private static String tagName(int value) {
+        StringBuilder tag = new StringBuilder(4);
+        for (; value != 0; value >>>= 8) {
+            tag.append((char) (value & 0xFF));
+        }
+        return tag.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+/**
+ * Hierarchical pathfinding (HPA*) for very large grids. The query runs A*
+ * over the entrances of a {@link ClusterGraph}, connecting start and goal to
+ * the entrances of their own clusters, then refines each hop of the abstract
+ * path with a breadth-first search confined to one cluster. The work grows
+ * with the number of clusters crossed rather than the number of cells.
+ *
+ * <p>Paths are not always the shortest possible: inside a cluster they are,
+ * but they can only cross between clusters at entrances, which usually costs
+ * a few extra steps. A path is found whenever one exists.
+ */
+public class HierarchicalSearch {
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    public static int search(CompactGrid grid, int startCell, int endCell) {
+        return search(grid, startCell, endCell, new SearchContext(grid.size()), SearchListener.NONE);
+    }
+
+    /**
+     * Finds a path through the abstract graph and refines it into cells. Returns
+     * the number of nodes explored: entrances expanded by the abstract search
+     * plus cells expanded while connecting and refining.
+     */
+    public static int search(CompactGrid grid, int startCell, int endCell,
+                             SearchContext context, SearchListener listener) {
+        ClusterGraph graph = graph(grid);
+        int area = graph.clusterSize() * graph.clusterSize();
+        int[] startDistance = context.area(0, area);
+        int[] endDistance = context.area(1, area);
+        int[] queue = context.area(2, area);
+        int nodesExplored = graph.distancesFrom(grid, startCell, startDistance, queue)
+                + graph.distancesFrom(grid, endCell, endDistance, queue);
+        int endCluster = graph.cluster(endCell);
+
+        context.begin();
+        IndexedMinHeap openSet = context.openSet();
+        int[] links = context.links();
+
+        context.markSeen(startCell);
+        context.setG(startCell, 0);
+        links[startCell] = -1;
+        openSet.add(startCell, Algorithms.heuristic(grid, startCell, endCell, false));
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            nodesExplored++;
+
+            if (current == endCell) {
+                int[] hops = hops(links, endCell);
+                int[] path = new int[context.g(endCell) + 1];
+                nodesExplored += refine(grid, graph, hops, path, startDistance, queue);
+                context.setPath(grid, path);
+                Algorithms.reconstructPath(grid, context, endCell, listener);
+                return nodesExplored;
+            }
+
+            context.markClosed(current);
+            listener.nodeExpanded(current);
+
+            int g = context.g(current);
+            int cluster = graph.cluster(current);
+            int[] entrances = graph.nodes(cluster);
+            int slot = graph.slot(current);
+            if (current == startCell) {
+                for (int entrance : entrances) {
+                    relax(grid, context, listener, links, current, entrance, g, startDistance[graph.local(entrance)], endCell);
+                }
+            } else if (slot >= 0) {
+                for (int i = 0; i < entrances.length; i++) {
+                    relax(grid, context, listener, links, current, entrances[i], g, graph.distance(cluster, slot, i), endCell);
+                }
+            }
+            if (cluster == endCluster) {
+                relax(grid, context, listener, links, current, endCell, g, endDistance[graph.local(current)], endCell);
+            }
+            if (slot >= 0) {
+                for (int dir = 0; dir < 4; dir++) {
+                    int across = grid.adjacent(current, dir);
+                    if (across >= 0 && graph.slot(across) >= 0 && graph.cluster(across) != cluster) {
+                        relax(grid, context, listener, links, current, across, g, 1, endCell);
+                    }
+                }
+            }
+        }
+
+        context.begin();
+        return nodesExplored;
+    }
+
+    /**
+     * Returns the cluster graph for the grid's current walls, rebuilding the
+     * clusters that changed since the last call. The graph is kept on the
+     * grid, and rebuilding clusters holds up no other grid's queries.
+     */
+    public static ClusterGraph graph(CompactGrid grid) {
+        ClusterGraph graph = grid.attachment(ClusterGraph.class, g -> new ClusterGraph(g, DEFAULT_CLUSTER_SIZE));
+        graph.refresh(grid);
+        return graph;
+    }
+
+    private static void relax(CompactGrid grid, SearchContext context, SearchListener listener, int[] links,
+                              int from, int to, int g, int cost, int endCell) {
+        if (cost == ClusterGraph.UNREACHABLE || context.isClosed(to)) return;
+        int tentativeGScore = g + cost;
+        if (tentativeGScore < context.g(to)) {
+            IndexedMinHeap openSet = context.openSet();
+            double fScore = tentativeGScore + Algorithms.heuristic(grid, to, endCell, false);
+            // Equal f-scores are common across open clusters; prefer the entrance furthest along.
+            if (openSet.contains(to)) {
+                openSet.update(to, fScore, -tentativeGScore);
+                listener.keyDecreased(to);
+            } else {
+                context.markSeen(to);
+                openSet.add(to, fScore, -tentativeGScore);
+                listener.nodeEnqueued(to);
+            }
+            links[to] = from;
+            context.setG(to, tentativeGScore);
+        }
+    }
+
+    /** The abstract path, start first, read back through {@code links}. */
+    private static int[] hops(int[] links, int endCell) {
+        int length = 0;
+        for (int cell = endCell; cell >= 0; cell = links[cell]) {
+            length++;
+        }
+        int[] hops = new int[length];
+        for (int i = length - 1, cell = endCell; i >= 0; i--, cell = links[cell]) {
+            hops[i] = cell;
+        }
+        return hops;
+    }
+
+    /**
+     * Expands each hop into single steps. Hops between clusters are already one
+     * step; the rest stay inside one cluster, where a breadth-first search from
+     * the far end lets the walk follow falling distances. Returns the number
+     * of cells those searches expanded.
+     */
+    private static int refine(CompactGrid grid, ClusterGraph graph, int[] hops, int[] path,
+                              int[] distance, int[] queue) {
+        int expanded = 0;
+        int length = 0;
+        path[length++] = hops[0];
+        for (int i = 1; i < hops.length; i++) {
+            int cell = hops[i - 1];
+            int target = hops[i];
+            if (Algorithms.heuristic(grid, cell, target, false) == 1) {
+                path[length++] = target;
+                continue;
+            }
+            expanded += graph.distancesFrom(grid, target, distance, queue);
+            int cluster = graph.cluster(target);
+            while (cell != target) {
+                int remaining = distance[graph.local(cell)];
+                for (int dir = 0; dir < 4; dir++) {
+                    int next = grid.neighbor(cell, dir);
+                    if (next >= 0 && graph.cluster(next) == cluster && distance[graph.local(next)] == remaining - 1) {
+                        cell = next;
+                        break;
+                    }
+                }
+                path[length++] = cell;
+            }
+        }
+        return expanded;
+    }
+}
\ No newline at end of file
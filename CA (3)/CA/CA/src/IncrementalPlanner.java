@@ -0,0 +1,244 @@
+import java.util.Arrays;
+
+/**
+ * D* Lite planner that keeps its search between runs. It searches backward
+ * from a fixed goal, listens to the grid for wall changes, and on the next
+ * {@link #plan} repairs only the part of the search tree those changes
+ * affect. The start may move freely between plans, as it does for an agent
+ * walking its path. After a single wall edit a replan usually touches a small
+ * fraction of the cells a fresh A* would.
+ *
+ * <p>Wall changes may arrive on any thread; planning itself is not
+ * thread-safe and must stay on one thread at a time. Call {@link #close} to
+ * stop listening to the grid.
+ */
+public class IncrementalPlanner implements GridChangeListener {
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    private final CompactGrid grid;
+    private final int goal;
+    private final int[] g;
+    private final int[] rhs;
+    private final IndexedMinHeap openSet;
+    private int start;
+    private int lastStart;
+    private int km;
+    // The listener of the plan in progress, told about cells added to the open set.
+    private SearchListener listener = SearchListener.NONE;
+
+    // Written by wallChanged/wallsReset, drained by plan(); guarded by this.
+    private final ChangeLog changes;
+
+    public IncrementalPlanner(CompactGrid grid, int start, int goal) {
+        this.grid = grid;
+        this.start = start;
+        this.goal = goal;
+        this.g = new int[grid.size()];
+        this.rhs = new int[grid.size()];
+        this.openSet = new IndexedMinHeap(grid.size());
+        this.changes = ChangeLog.forGrid(grid);
+        grid.addChangeListener(this);
+    }
+
+    public CompactGrid grid() {
+        return grid;
+    }
+
+    public int goal() {
+        return goal;
+    }
+
+    public int start() {
+        return start;
+    }
+
+    /** Moves the start, e.g. after the agent has taken a step; takes effect on the next {@link #plan}. */
+    public void moveStart(int cell) {
+        start = cell;
+    }
+
+    @Override
+    public synchronized void wallChanged(int cell) {
+        changes.changed(cell);
+    }
+
+    @Override
+    public synchronized void wallsReset() {
+        changes.reset();
+    }
+
+    public void close() {
+        grid.removeChangeListener(this);
+    }
+
+    /**
+     * Brings the plan up to date with the current start and walls, and
+     * returns the number of cells expanded to do so.
+     */
+    public int plan(SearchListener listener) {
+        this.listener = listener;
+        try {
+            return replan(listener);
+        } finally {
+            this.listener = SearchListener.NONE;
+        }
+    }
+
+    private int replan(SearchListener listener) {
+        int[] cells;
+        boolean fresh;
+        synchronized (this) {
+            fresh = changes.rebuild();
+            cells = changes.toArray();
+            changes.caughtUp(grid.version());
+        }
+
+        if (fresh) {
+            initialize();
+        } else {
+            // Queued keys were computed from the old start; km keeps them valid lower bounds.
+            km += heuristic(lastStart, start);
+            lastStart = start;
+            for (int cell : cells) {
+                updateRhs(cell);
+                for (int dir = 0; dir < 4; dir++) {
+                    int next = grid.adjacent(cell, dir);
+                    if (next >= 0) updateRhs(next);
+                }
+            }
+        }
+        return computeShortestPath(listener);
+    }
+
+    /** Cost of the current plan, or -1 if the goal cannot be reached. */
+    public int cost() {
+        return rhs[start] >= INFINITY ? -1 : rhs[start];
+    }
+
+    /**
+     * Returns the planned path from the start to the goal, both inclusive, or
+     * an empty array if there is none. Only valid right after {@link #plan}.
+     */
+    public int[] path() {
+        if (cost() < 0) return new int[0];
+        int[] path = new int[cost() + 1];
+        int cell = start;
+        path[0] = cell;
+        for (int i = 1; i < path.length; i++) {
+            int best = -1;
+            int bestCost = INFINITY;
+            for (int dir = 0; dir < 4; dir++) {
+                int next = grid.neighbor(cell, dir);
+                if (next >= 0 && g[next] < bestCost) {
+                    bestCost = g[next];
+                    best = next;
+                }
+            }
+            if (best < 0) return new int[0];
+            path[i] = cell = best;
+        }
+        return cell == goal ? path : new int[0];
+    }
+
+    private void initialize() {
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        openSet.clear();
+        km = 0;
+        lastStart = start;
+        rhs[goal] = 0;
+        openSet.add(goal, heuristic(start, goal), 0);
+    }
+
+    private int computeShortestPath(SearchListener listener) {
+        int expanded = 0;
+        while (!openSet.isEmpty()
+                && (before(openSet.peekKey(), openSet.peekTie(), key(start), Math.min(g[start], rhs[start]))
+                || rhs[start] > g[start])) {
+            int u = openSet.peek();
+            double oldKey = openSet.peekKey();
+            double oldTie = openSet.peekTie();
+            int newKey = key(u);
+            int newTie = Math.min(g[u], rhs[u]);
+
+            if (before(oldKey, oldTie, newKey, newTie)) {
+                openSet.update(u, newKey, newTie);
+            } else if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+                openSet.remove(u);
+                expanded++;
+                listener.nodeExpanded(u);
+                if (grid.isWall(u)) continue;
+                for (int dir = 0; dir < 4; dir++) {
+                    int s = grid.neighbor(u, dir);
+                    if (s >= 0 && s != goal && g[u] + 1 < rhs[s]) {
+                        rhs[s] = g[u] + 1;
+                        updateVertex(s);
+                    }
+                }
+            } else {
+                int oldG = g[u];
+                g[u] = INFINITY;
+                expanded++;
+                listener.nodeExpanded(u);
+                updateRhsIfVia(u, u, oldG);
+                if (grid.isWall(u)) continue;
+                for (int dir = 0; dir < 4; dir++) {
+                    int s = grid.neighbor(u, dir);
+                    if (s >= 0) updateRhsIfVia(s, u, oldG);
+                }
+            }
+        }
+        return expanded;
+    }
+
+    /** Recomputes {@code rhs(s)} if it was derived from {@code u} when u's g-score was {@code oldG}. */
+    private void updateRhsIfVia(int s, int u, int oldG) {
+        if (s == u || rhs[s] == oldG + 1) {
+            updateRhs(s);
+        } else {
+            updateVertex(s);
+        }
+    }
+
+    private void updateRhs(int s) {
+        if (s != goal) {
+            int best = INFINITY;
+            if (!grid.isWall(s)) {
+                for (int dir = 0; dir < 4; dir++) {
+                    int next = grid.neighbor(s, dir);
+                    if (next >= 0) best = Math.min(best, g[next] + 1);
+                }
+            }
+            rhs[s] = Math.min(best, INFINITY);
+        }
+        updateVertex(s);
+    }
+
+    private void updateVertex(int s) {
+        boolean queued = openSet.contains(s);
+        if (g[s] != rhs[s]) {
+            if (queued) {
+                openSet.update(s, key(s), Math.min(g[s], rhs[s]));
+            } else {
+                openSet.add(s, key(s), Math.min(g[s], rhs[s]));
+                listener.nodeEnqueued(s);
+            }
+        } else if (queued) {
+            openSet.remove(s);
+        }
+    }
+
+    private int key(int s) {
+        int m = Math.min(g[s], rhs[s]);
+        return m >= INFINITY ? INFINITY : m + heuristic(start, s) + km;
+    }
+
+    private static boolean before(double key, double tie, double otherKey, double otherTie) {
+        return key < otherKey || (key == otherKey && tie < otherTie);
+    }
+
+    private int heuristic(int a, int b) {
+        return Math.abs(grid.row(a) - grid.row(b)) + Math.abs(grid.col(a) - grid.col(b));
+    }
+}
\ No newline at end of file
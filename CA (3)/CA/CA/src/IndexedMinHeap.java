@@ -0,0 +1,168 @@
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of cell indices with a position map, so membership tests are
+ * O(1) and a queued cell's key can be changed in O(log n) without duplicates.
+ * Cells are ordered by key, then by an optional secondary key for ties.
+ */
+public class IndexedMinHeap {
+    private final int[] position;
+    private int[] heap = new int[64];
+    private double[] keys = new double[64];
+    private double[] ties = new double[64];
+    private int size;
+
+    /** Creates a heap for cells {@code 0 .. capacity - 1}. */
+    public IndexedMinHeap(int capacity) {
+        position = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int cell) {
+        return position[cell] >= 0;
+    }
+
+    public double key(int cell) {
+        return keys[position[cell]];
+    }
+
+    public void add(int cell, double key) {
+        add(cell, key, 0);
+    }
+
+    public void add(int cell, double key, double tie) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+            ties = Arrays.copyOf(ties, size * 2);
+        }
+        heap[size] = cell;
+        keys[size] = key;
+        ties[size] = tie;
+        position[cell] = size;
+        siftUp(size++);
+    }
+
+    /** Lowers the key of a queued cell; keys that are not lower are ignored. */
+    public void decreaseKey(int cell, double key) {
+        int i = position[cell];
+        if (key < keys[i]) {
+            keys[i] = key;
+            siftUp(i);
+        }
+    }
+
+    /** Adds the cell, or lowers its key if it is already queued. */
+    public void addOrDecrease(int cell, double key) {
+        if (contains(cell)) {
+            decreaseKey(cell, key);
+        } else {
+            add(cell, key);
+        }
+    }
+
+    /** Changes the keys of a queued cell in either direction. */
+    public void update(int cell, double key, double tie) {
+        int i = position[cell];
+        keys[i] = key;
+        ties[i] = tie;
+        siftUp(i);
+        siftDown(position[cell]);
+    }
+
+    /** Removes a queued cell from anywhere in the heap. */
+    public void remove(int cell) {
+        int i = position[cell];
+        position[cell] = -1;
+        size--;
+        if (i < size) {
+            heap[i] = heap[size];
+            keys[i] = keys[size];
+            ties[i] = ties[size];
+            position[heap[i]] = i;
+            int moved = heap[i];
+            siftUp(i);
+            siftDown(position[moved]);
+        }
+    }
+
+    public int peek() {
+        return heap[0];
+    }
+
+    public double peekKey() {
+        return keys[0];
+    }
+
+    public double peekTie() {
+        return ties[0];
+    }
+
+    public int poll() {
+        int top = heap[0];
+        remove(top);
+        return top;
+    }
+
+    /** Empties the heap in time proportional to its size, not its capacity. */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private static boolean orderedBefore(double key, double tie, double otherKey, double otherTie) {
+        return key < otherKey || (key == otherKey && tie < otherTie);
+    }
+
+    private void siftUp(int i) {
+        int cell = heap[i];
+        double key = keys[i];
+        double tie = ties[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!orderedBefore(key, tie, keys[parent], ties[parent])) break;
+            move(parent, i);
+            i = parent;
+        }
+        place(i, cell, key, tie);
+    }
+
+    private void siftDown(int i) {
+        int cell = heap[i];
+        double key = keys[i];
+        double tie = ties[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && orderedBefore(keys[child + 1], ties[child + 1], keys[child], ties[child])) child++;
+            if (!orderedBefore(keys[child], ties[child], key, tie)) break;
+            move(child, i);
+            i = child;
+        }
+        place(i, cell, key, tie);
+    }
+
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        keys[to] = keys[from];
+        ties[to] = ties[from];
+        position[heap[to]] = to;
+    }
+
+    private void place(int i, int cell, double key, double tie) {
+        heap[i] = cell;
+        keys[i] = key;
+        ties[i] = tie;
+        position[cell] = i;
+    }
+}
\ No newline at end of file
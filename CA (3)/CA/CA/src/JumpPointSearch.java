@@ -0,0 +1,202 @@
+import java.util.Arrays;
+
+/**
+ * Jump Point Search for uniform-cost 4-connected grids. On open ground,
+ * A* pushes every one of the many equally short paths through its open set;
+ * JPS instead jumps along straight lines and only queues cells where a
+ * shortest path may have to turn. Moving horizontally it stops where a cell
+ * above or below opens up behind a wall. Moving vertically it also stops
+ * wherever a horizontal jump would find something. The result is still a
+ * shortest path.
+ *
+ * <p>{@link #searchPlus} is JPS+: the same search, but jumps are looked up in
+ * a precomputed {@link JumpTable} instead of being scanned cell by cell.
+ */
+public class JumpPointSearch {
+
+    public static int search(CompactGrid grid, int startCell, int endCell) {
+        return search(grid, startCell, endCell, new SearchContext(grid.size()), SearchListener.NONE);
+    }
+
+    public static int search(CompactGrid grid, int startCell, int endCell,
+                             SearchContext context, SearchListener listener) {
+        return run(grid, startCell, endCell, null, context, listener);
+    }
+
+    public static int searchPlus(CompactGrid grid, int startCell, int endCell,
+                                 SearchContext context, SearchListener listener) {
+        return run(grid, startCell, endCell, table(grid), context, listener);
+    }
+
+    /**
+     * Returns the jump table for the grid's current walls, building it if
+     * they changed since the last call. The table is kept on the grid, and
+     * building one holds up no other grid's queries.
+     */
+    public static JumpTable table(CompactGrid grid) {
+        return grid.attachment(Slot.class, g -> new Slot()).get(grid);
+    }
+
+    /** The jump table kept on a grid. */
+    private static final class Slot extends GridCache<JumpTable> {
+        @Override
+        JumpTable build(CompactGrid grid) {
+            return new JumpTable(grid);
+        }
+
+        @Override
+        boolean isCurrent(JumpTable table, CompactGrid grid) {
+            return table.isCurrent(grid);
+        }
+    }
+
+    private static int run(CompactGrid grid, int startCell, int endCell, JumpTable table,
+                           SearchContext context, SearchListener listener) {
+        context.begin();
+        IndexedMinHeap openSet = context.openSet();
+
+        context.markSeen(startCell);
+        context.setG(startCell, 0);
+        openSet.add(startCell, Algorithms.heuristic(grid, startCell, endCell, false));
+
+        int nodesExplored = 0;
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            nodesExplored++;
+
+            if (current == endCell) {
+                linkPath(grid, context, endCell);
+                Algorithms.reconstructPath(grid, context, endCell, listener);
+                return nodesExplored;
+            }
+
+            context.markClosed(current);
+            listener.nodeExpanded(current);
+
+            int back = context.parentDirection(current);
+            for (int dir = 0; dir < 4; dir++) {
+                if (dir == back) continue;
+
+                int jumpPoint = table == null ? jump(grid, current, dir, endCell) : jumpPlus(grid, table, current, dir, endCell);
+                if (jumpPoint < 0 || context.isClosed(jumpPoint)) continue;
+
+                int tentativeGScore = context.g(current) + distance(grid, current, jumpPoint);
+                if (tentativeGScore < context.g(jumpPoint)) {
+                    double fScore = tentativeGScore + Algorithms.heuristic(grid, jumpPoint, endCell, false);
+                    if (openSet.contains(jumpPoint)) {
+                        openSet.decreaseKey(jumpPoint, fScore);
+                        listener.keyDecreased(jumpPoint);
+                    } else {
+                        context.markSeen(jumpPoint);
+                        openSet.add(jumpPoint, fScore);
+                        listener.nodeEnqueued(jumpPoint);
+                    }
+                    context.setParent(jumpPoint, dir);
+                    context.setG(jumpPoint, tentativeGScore);
+                }
+            }
+        }
+
+        return nodesExplored;
+    }
+
+    /**
+     * True if {@code cell}, entered from {@code previous} by moving in
+     * {@code dir}, has a forced neighbor: a side cell that is open here but
+     * was blocked next to {@code previous}, so a shortest path may turn here.
+     */
+    static boolean isJumpPoint(CompactGrid grid, int cell, int previous, int dir) {
+        int sideA = dir <= CompactGrid.DOWN ? CompactGrid.LEFT : CompactGrid.UP;
+        int sideB = CompactGrid.opposite(sideA);
+        return (grid.neighbor(cell, sideA) >= 0 && grid.neighbor(previous, sideA) < 0)
+                || (grid.neighbor(cell, sideB) >= 0 && grid.neighbor(previous, sideB) < 0);
+    }
+
+    private static int jump(CompactGrid grid, int cell, int dir, int endCell) {
+        boolean vertical = dir <= CompactGrid.DOWN;
+        while (true) {
+            int next = grid.neighbor(cell, dir);
+            if (next < 0) return -1;
+            if (next == endCell || isJumpPoint(grid, next, cell, dir)) return next;
+            if (vertical && (jump(grid, next, CompactGrid.LEFT, endCell) >= 0
+                    || jump(grid, next, CompactGrid.RIGHT, endCell) >= 0)) {
+                return next;
+            }
+            cell = next;
+        }
+    }
+
+    private static int jumpPlus(CompactGrid grid, JumpTable table, int cell, int dir, int endCell) {
+        int steps = table.get(cell, dir);
+        int reach = steps > 0 ? steps : -steps;
+        if (reach == 0) return -1;
+
+        int row = grid.row(cell), col = grid.col(cell);
+        int endRow = grid.row(endCell), endCol = grid.col(endCell);
+        if (dir <= CompactGrid.DOWN) {
+            // Stop on the goal's row if a horizontal jump from there would run into the goal.
+            int toEndRow = dir == CompactGrid.DOWN ? endRow - row : row - endRow;
+            if (toEndRow > 0 && toEndRow <= reach && (steps <= 0 || toEndRow < steps)) {
+                int onEndRow = travel(grid, cell, dir, toEndRow);
+                int toEnd = Math.abs(endCol - col);
+                int run = toEnd == 0 ? 0 : -table.get(onEndRow, endCol > col ? CompactGrid.RIGHT : CompactGrid.LEFT);
+                if (run >= toEnd) return onEndRow;
+            }
+        } else if (endRow == row) {
+            int toEnd = dir == CompactGrid.RIGHT ? endCol - col : col - endCol;
+            if (toEnd > 0 && toEnd <= reach && (steps <= 0 || toEnd <= steps)) {
+                return endCell;
+            }
+        }
+        return steps > 0 ? travel(grid, cell, dir, steps) : -1;
+    }
+
+    private static int travel(CompactGrid grid, int cell, int dir, int steps) {
+        return switch (dir) {
+            case CompactGrid.UP -> cell - steps * grid.cols();
+            case CompactGrid.DOWN -> cell + steps * grid.cols();
+            case CompactGrid.LEFT -> cell - steps;
+            default -> cell + steps;
+        };
+    }
+
+    private static int distance(CompactGrid grid, int a, int b) {
+        return Math.abs(grid.row(a) - grid.row(b)) + Math.abs(grid.col(a) - grid.col(b));
+    }
+
+    /**
+     * Fills in parents for the cells between jump points on the final path, so
+     * it can be walked one step at a time like any other search's path. Each
+     * jump point's parent lies straight behind it; it is the first expanded cell
+     * in that direction whose g-score plus the distance matches.
+     */
+    private static void linkPath(CompactGrid grid, SearchContext context, int endCell) {
+        int[] segments = new int[24];
+        int count = 0;
+        for (int cell = endCell; context.parentDirection(cell) >= 0; ) {
+            int back = context.parentDirection(cell);
+            int parent = cell;
+            int steps = 0;
+            do {
+                parent = grid.step(parent, back);
+                steps++;
+            } while (!(context.isClosed(parent) && context.g(parent) + steps == context.g(cell)));
+            if (count + 3 > segments.length) segments = Arrays.copyOf(segments, count * 2);
+            segments[count++] = cell;
+            segments[count++] = back;
+            segments[count++] = steps;
+            cell = parent;
+        }
+        // Only touch the cells strictly between jump points, after the walk above is done with them.
+        for (int i = 0; i < count; i += 3) {
+            int back = segments[i + 1];
+            int cell = segments[i];
+            for (int k = 1; k < segments[i + 2]; k++) {
+                cell = grid.step(cell, back);
+                context.markSeen(cell);
+                context.setParent(cell, CompactGrid.opposite(back));
+            }
+        }
+    }
+}
\ No newline at end of file
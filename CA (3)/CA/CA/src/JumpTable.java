@@ -0,0 +1,62 @@
+/**
+ * Precomputed jump distances for {@link JumpPointSearch#searchPlus} (JPS+).
+ * For every open cell and direction it stores how many steps away the next
+ * jump point is, or, as a value of zero or less, minus the number of free
+ * cells before a wall or the edge. The goal is never part of the table; the
+ * search checks for it separately. Built in a few linear passes over the grid
+ * and only valid for the {@link CompactGrid#version()} it was built from.
+ */
+public class JumpTable {
+    private final int[] jumps;
+    private final int version;
+
+    public JumpTable(CompactGrid grid) {
+        int rows = grid.rows();
+        int cols = grid.cols();
+        this.version = grid.version();
+        this.jumps = new int[grid.size() * 4];
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = cols - 1; c >= 0; c--) {
+                scan(grid, grid.index(r, c), CompactGrid.RIGHT);
+            }
+            for (int c = 0; c < cols; c++) {
+                scan(grid, grid.index(r, c), CompactGrid.LEFT);
+            }
+        }
+        // Vertical jumps stop wherever a horizontal jump would, so these passes come second.
+        for (int c = 0; c < cols; c++) {
+            for (int r = rows - 1; r >= 0; r--) {
+                scan(grid, grid.index(r, c), CompactGrid.DOWN);
+            }
+            for (int r = 0; r < rows; r++) {
+                scan(grid, grid.index(r, c), CompactGrid.UP);
+            }
+        }
+    }
+
+    private void scan(CompactGrid grid, int cell, int dir) {
+        if (grid.isWall(cell)) return;
+        int next = grid.neighbor(cell, dir);
+        int distance;
+        if (next < 0) {
+            distance = 0;
+        } else if (JumpPointSearch.isJumpPoint(grid, next, cell, dir)
+                || (dir <= CompactGrid.DOWN && (get(next, CompactGrid.LEFT) > 0 || get(next, CompactGrid.RIGHT) > 0))) {
+            distance = 1;
+        } else {
+            int after = get(next, dir);
+            distance = after > 0 ? after + 1 : after - 1;
+        }
+        jumps[cell * 4 + dir] = distance;
+    }
+
+    /** Steps to the next jump point from {@code cell} in {@code dir}, or minus the free run if there is none. */
+    public int get(int cell, int dir) {
+        return jumps[cell * 4 + dir];
+    }
+
+    public boolean isCurrent(CompactGrid grid) {
+        return version == grid.version();
+    }
+}
\ No newline at end of file
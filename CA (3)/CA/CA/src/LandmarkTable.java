@@ -0,0 +1,246 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Landmark distances for the ALT heuristic (A*, Landmarks, Triangle
+ * inequality). A handful of landmark cells are spread around the edge of the
+ * grid and the exact step count from each of them to every cell is stored.
+ * For any two cells, the difference of their distances to a landmark can never
+ * exceed the true distance between them, so the largest such difference is an
+ * admissible estimate that, unlike Manhattan distance, knows about walls. On
+ * mazes it keeps A* close to the real corridor instead of flooding the maze.
+ *
+ * <p>Building costs one breadth-first search per landmark, run in parallel,
+ * and memory is one {@code int} per cell per landmark. A table is only valid
+ * for the {@link CompactGrid#version()} it was built from. It can be saved
+ * as a section of the grid's {@link GridFile} and loaded back as long as the
+ * walls still match.
+ */
+public class LandmarkTable {
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    /** Tag of the {@link GridFile} section holding a saved table. */
+    public static final String SECTION = "ALT1";
+
+    private static final int UNREACHABLE = -1;
+
+    private final int[] landmarks;
+    private final int[][] distances;
+    private final int size;
+    private final long fingerprint;
+    private final int version;
+
+    public LandmarkTable(CompactGrid grid, int landmarkCount) {
+        this(grid, pickLandmarks(grid, landmarkCount));
+    }
+
+    /** Builds distance tables from the given landmark cells. */
+    public LandmarkTable(CompactGrid grid, int[] landmarks) {
+        this.landmarks = landmarks.clone();
+        this.distances = new int[landmarks.length][];
+        this.size = grid.size();
+        this.fingerprint = grid.fingerprint();
+        this.version = grid.version();
+        IntStream.range(0, landmarks.length).parallel()
+                .forEach(i -> distances[i] = distancesFrom(grid, this.landmarks[i]));
+    }
+
+    private LandmarkTable(int[] landmarks, int[][] distances, int size, long fingerprint, int version) {
+        this.landmarks = landmarks;
+        this.distances = distances;
+        this.size = size;
+        this.fingerprint = fingerprint;
+        this.version = version;
+    }
+
+    /**
+     * Returns the landmark table for the grid's current walls, building it if
+     * they changed since the last call. Callers asking while a build for the
+     * grid is under way wait for that one rather than starting their own;
+     * other grids are not held up.
+     */
+    public static LandmarkTable of(CompactGrid grid) {
+        return grid.attachment(Slot.class, g -> new Slot()).get(grid);
+    }
+
+    /**
+     * Returns the table {@link #of} would return if one is already built for
+     * the grid's current walls, or null rather than building one.
+     */
+    public static LandmarkTable cached(CompactGrid grid) {
+        return grid.attachment(Slot.class, g -> new Slot()).current(grid);
+    }
+
+    /** The table kept on a grid. */
+    private static final class Slot extends GridCache<LandmarkTable> {
+        @Override
+        LandmarkTable build(CompactGrid grid) {
+            return new LandmarkTable(grid, DEFAULT_LANDMARKS);
+        }
+
+        @Override
+        boolean isCurrent(LandmarkTable table, CompactGrid grid) {
+            return table.isCurrent(grid);
+        }
+    }
+
+    public boolean isCurrent(CompactGrid grid) {
+        return version == grid.version();
+    }
+
+    public int[] landmarks() {
+        return landmarks.clone();
+    }
+
+    /** Lower bound on the number of steps between {@code a} and {@code b}. */
+    public int estimate(int a, int b) {
+        int best = 0;
+        for (int[] distance : distances) {
+            int da = distance[a];
+            int db = distance[b];
+            if (da == UNREACHABLE || db == UNREACHABLE) continue;
+            int bound = da > db ? da - db : db - da;
+            if (bound > best) best = bound;
+        }
+        return best;
+    }
+
+    /**
+     * Spreads landmarks evenly around the edge of the grid, each on the open
+     * cell closest to its spot, found for all spots in one pass over the
+     * grid. Landmarks on the rim, far from each other, give the tightest
+     * bounds for paths crossing the map.
+     */
+    static int[] pickLandmarks(CompactGrid grid, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Need at least one landmark: " + count);
+        }
+        int rows = grid.rows(), cols = grid.cols();
+        long perimeter = 2L * (rows + cols);
+        int[] spotRows = new int[count];
+        int[] spotCols = new int[count];
+        for (int i = 0; i < count; i++) {
+            long along = perimeter * i / count;
+            int row, col;
+            if (along < cols) {
+                row = 0;
+                col = (int) along;
+            } else if (along < cols + rows) {
+                row = (int) (along - cols);
+                col = cols - 1;
+            } else if (along < 2L * cols + rows) {
+                row = rows - 1;
+                col = (int) (2L * cols + rows - 1 - along);
+            } else {
+                row = (int) (perimeter - 1 - along);
+                col = 0;
+            }
+            spotRows[i] = row;
+            spotCols[i] = col;
+        }
+
+        int[] nearest = new int[count];
+        int[] nearestDistance = new int[count];
+        Arrays.fill(nearest, -1);
+        Arrays.fill(nearestDistance, Integer.MAX_VALUE);
+        for (int row = 0, cell = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++, cell++) {
+                if (grid.isWall(cell)) continue;
+                for (int i = 0; i < count; i++) {
+                    int distance = Math.abs(row - spotRows[i]) + Math.abs(col - spotCols[i]);
+                    if (distance < nearestDistance[i]) {
+                        nearest[i] = cell;
+                        nearestDistance[i] = distance;
+                    }
+                }
+            }
+        }
+
+        int[] picked = new int[count];
+        int found = 0;
+        for (int cell : nearest) {
+            if (cell >= 0 && !contains(picked, found, cell)) {
+                picked[found++] = cell;
+            }
+        }
+        return Arrays.copyOf(picked, found);
+    }
+
+    private static boolean contains(int[] cells, int count, int cell) {
+        for (int i = 0; i < count; i++) {
+            if (cells[i] == cell) return true;
+        }
+        return false;
+    }
+
+    private static int[] distancesFrom(CompactGrid grid, int source) {
+        int[] distance = new int[grid.size()];
+        Arrays.fill(distance, UNREACHABLE);
+        int[] queue = new int[grid.size()];
+        int head = 0, tail = 0;
+        distance[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = grid.neighbor(current, dir);
+                if (neighbor >= 0 && distance[neighbor] == UNREACHABLE) {
+                    distance[neighbor] = distance[current] + 1;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Encodes the table as a {@link GridFile} section, tagged with the walls it
+     * was built for, to be saved with the grid under {@link #SECTION}.
+     */
+    public ByteBuffer toSection() {
+        long bytes = 16 + landmarks.length * (4 + 4L * size);
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Landmark table of " + bytes + " bytes is too large for one section");
+        }
+        ByteBuffer section = ByteBuffer.allocate((int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+        section.putLong(fingerprint).putInt(size).putInt(landmarks.length);
+        for (int i = 0; i < landmarks.length; i++) {
+            section.putInt(landmarks[i]);
+            section.asIntBuffer().put(distances[i]);
+            section.position(section.position() + 4 * size);
+        }
+        return section.flip();
+    }
+
+    /**
+     * Reads the landmark section of {@code file}, if it has one, and attaches
+     * the table to the file's grid so that {@link #of} returns it until the
+     * walls change. Returns null if the file was saved without landmarks.
+     *
+     * @throws IOException if the section was built for different walls
+     */
+    public static LandmarkTable load(GridFile file) throws IOException {
+        ByteBuffer section = file.section(SECTION);
+        if (section == null) return null;
+        CompactGrid grid = file.grid();
+        long fingerprint = section.getLong();
+        int size = section.getInt();
+        if (fingerprint != grid.fingerprint() || size != grid.size()) {
+            throw new IOException("Landmark section was built for different walls");
+        }
+        int count = section.getInt();
+        int[] landmarks = new int[count];
+        int[][] distances = new int[count][size];
+        for (int i = 0; i < count; i++) {
+            landmarks[i] = section.getInt();
+            section.asIntBuffer().get(distances[i]);
+            section.position(section.position() + 4 * size);
+        }
+        LandmarkTable table = new LandmarkTable(landmarks, distances, size, fingerprint, grid.version());
+        grid.attachment(Slot.class, g -> new Slot()).set(table);
+        return table;
+    }
+}
\ No newline at end of file
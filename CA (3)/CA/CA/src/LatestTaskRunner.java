@@ -0,0 +1,85 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs background jobs one at a time on a single reused thread, where the
+ * newest job always wins: submitting a job cancels the one running, and the
+ * new one starts as soon as the old one notices. Since only one job ever runs,
+ * whatever the jobs write has a single writer and needs no locking between them.
+ *
+ * <p>Cancellation is cooperative. The running job's thread is interrupted,
+ * and the job calls {@link #checkCancelled()} at points where it is safe to
+ * stop, unwinding with a {@link CancellationException} that the runner
+ * swallows. Blocking calls such as {@link Thread#sleep} see the interrupt too.
+ */
+public class LatestTaskRunner {
+    private final ExecutorService worker;
+    private Future<?> current;
+
+    public LatestTaskRunner(String threadName) {
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Throws {@link CancellationException} if the job running on this thread has been cancelled. */
+    public static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+    }
+
+    /** Cancels the running job, if any, and queues {@code job} to start once it has stopped. */
+    public synchronized Future<?> submit(Runnable job) {
+        cancel();
+        current = worker.submit(wrap(job));
+        return current;
+    }
+
+    /**
+     * Like {@link #submit}, except that newer jobs never cancel this one: it
+     * always runs, in order, and to the end. Meant for short edits that must
+     * not be lost just because another job was submitted before they started.
+     */
+    public synchronized Future<?> submitUncancellable(Runnable job) {
+        cancel();
+        current = null;
+        return worker.submit(wrap(job));
+    }
+
+    private static Runnable wrap(Runnable job) {
+        return () -> {
+            try {
+                job.run();
+            } catch (CancellationException e) {
+                // Preempted by a newer job.
+            }
+        };
+    }
+
+    /** Cancels the running job, if any, without waiting for it to stop. */
+    public synchronized void cancel() {
+        if (current != null) current.cancel(true);
+    }
+
+    /**
+     * Cancels the running job and waits until it has really stopped, so the
+     * caller can touch the data it was writing.
+     */
+    public void cancelAndWait() {
+        // The worker runs one job at a time, so an empty job finishes only after the cancelled one.
+        Future<?> barrier = submit(() -> { });
+        try {
+            barrier.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (CancellationException | ExecutionException e) {
+            // The barrier does nothing, so there is nothing to report.
+        }
+    }
+}
\ No newline at end of file
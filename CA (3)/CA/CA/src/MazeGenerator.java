@@ -0,0 +1,416 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates the visualizer's mazes without a view, for any grid backend.
+ * The same style, size and seed always give the same maze.
+ *
+ * <p>Every random choice is a hash of the seed and of where it is made (a
+ * cell, a wall line or a chamber's bounds) instead of a draw from a shared
+ * random stream. So independent regions can be generated in any order, on
+ * any number of threads, and still give the same walls. Chambers are kept on
+ * explicit stacks, never the call stack, so map size is limited only by
+ * memory.
+ *
+ * <p>{@link #generate(Style, int, int, long, boolean)} writes straight into a
+ * wall bitset laid out like {@link CompactGrid}'s, a word at a time where it
+ * can. The {@link WallSink} overload reports the walls one by one, in
+ * drawing order, for animating them or filling some other backend.
+ */
+public class MazeGenerator {
+    // Chambers at least this big are divided on their own fork/join task.
+    private static final long PARALLEL_CELLS = 1 << 16;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    public enum Style {
+        /** Each cell is a wall with probability 1/4, independently of the others. */
+        RANDOM,
+        /** Bordered recursive division: each chamber is split by a wall with three gaps until it is narrow. */
+        RECURSIVE_DIVISION,
+        /** Bordered, with horizontal walls across the whole width, bisecting the rows, each with four gaps. */
+        HORIZONTAL_WALLS,
+        /** Like {@link #HORIZONTAL_WALLS}, with vertical walls bisecting the columns. */
+        VERTICAL_WALLS,
+        /** Like {@link #RANDOM}, with probability 1/8, for a sparser field of obstacles. */
+        SCATTER
+    }
+
+    /** Receives the walls of a maze one cell at a time; cells not reported stay open. */
+    public interface WallSink {
+        void setWall(int row, int col);
+    }
+
+    /** Generates a maze straight into {@code grid}, replacing its walls, with one reset notification. */
+    public static void generate(CompactGrid grid, Style style, long seed) {
+        grid.setWalls(generate(style, grid.rows(), grid.cols(), seed, true));
+    }
+
+    /**
+     * Returns the walls of a maze as a row-major bitset of
+     * {@code rows * cols} bits, 64 cells per word, lowest bit first. With
+     * {@code parallel}, independent regions are generated on the common
+     * fork/join pool; the result is the same either way.
+     */
+    public static long[] generate(Style style, int rows, int cols, long seed, boolean parallel) {
+        checkSize(rows, cols);
+        long[] words = new long[CompactGrid.wordCount(rows, cols)];
+        // Only division chambers are drawn concurrently; the other styles fill words independently or stay sequential.
+        boolean shared = parallel && style == Style.RECURSIVE_DIVISION;
+        generate(style, rows, cols, seed, parallel, new BitTarget(words, cols, shared));
+        return words;
+    }
+
+    /** Reports the walls of a maze to {@code sink} in the order they are drawn, on the calling thread. */
+    public static void generate(Style style, int rows, int cols, long seed, WallSink sink) {
+        checkSize(rows, cols);
+        generate(style, rows, cols, seed, false, new SinkTarget(sink));
+    }
+
+    private static void generate(Style style, int rows, int cols, long seed, boolean parallel, Target target) {
+        switch (style) {
+            case RANDOM -> random(rows, cols, seed, 2, parallel, target);
+            case RECURSIVE_DIVISION -> {
+                border(rows, cols, target);
+                DivisionTask root = new DivisionTask(seed, target, parallel, 0, rows - 1, 0, cols - 1);
+                if (parallel) {
+                    ForkJoinPool.commonPool().invoke(root);
+                } else {
+                    root.compute();
+                }
+            }
+            case HORIZONTAL_WALLS -> {
+                border(rows, cols, target);
+                bands(rows, cols, seed, true, target);
+            }
+            case VERTICAL_WALLS -> {
+                border(rows, cols, target);
+                bands(cols, rows, seed, false, target);
+            }
+            case SCATTER -> random(rows, cols, seed, 3, parallel, target);
+        }
+    }
+
+    private static void checkSize(int rows, int cols) {
+        if (rows <= 0 || cols <= 0 || (long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid grid size: " + rows + "x" + cols);
+        }
+    }
+
+    /** Makes each cell a wall with probability 1 / 2^{@code halvings}. */
+    private static void random(int rows, int cols, long seed, int halvings, boolean parallel, Target target) {
+        long size = (long) rows * cols;
+        if (target instanceof BitTarget bits) {
+            // Every word is a pure function of its index, so the words can be filled in any order.
+            if (parallel) {
+                Arrays.parallelSetAll(bits.words, i -> randomWord(seed, i, halvings, size));
+            } else {
+                Arrays.setAll(bits.words, i -> randomWord(seed, i, halvings, size));
+            }
+            return;
+        }
+        for (int i = 0, words = (int) ((size + 63) >>> 6); i < words; i++) {
+            long word = randomWord(seed, i, halvings, size);
+            for (; word != 0; word &= word - 1) {
+                long cell = ((long) i << 6) + Long.numberOfTrailingZeros(word);
+                target.cell((int) (cell / cols), (int) (cell % cols));
+            }
+        }
+    }
+
+    /** Word {@code i} of a random bitset: the and of several random words, cut off after the last cell. */
+    private static long randomWord(long seed, int i, int halvings, long size) {
+        long word = -1L;
+        for (int k = 0; k < halvings; k++) {
+            word &= hash(seed, (long) i * halvings + k);
+        }
+        long unused = ((long) i << 6) + 64 - size;
+        return unused > 0 ? word & (-1L >>> unused) : word;
+    }
+
+    private static void border(int rows, int cols, Target target) {
+        target.row(0, 0, cols - 1);
+        target.row(rows - 1, 0, cols - 1);
+        target.col(0, 1, rows - 2);
+        target.col(cols - 1, 1, rows - 2);
+    }
+
+    /**
+     * Walls across the grid at the middle line of every band of more than
+     * four lines, bisecting until the bands are thin. {@code lines} counts
+     * the lines being bisected and {@code length} how long each one is.
+     */
+    private static void bands(int lines, int length, long seed, boolean horizontal, Target target) {
+        IntStack bands = new IntStack();
+        bands.push(0, lines - 1);
+        int[] gaps = new int[4];
+        // Drawn a column at a time, vertical walls would touch a new word per cell, so into a
+        // bitset they are collected first and then drawn a row at a time.
+        IntStack columns = !horizontal && target instanceof BitTarget ? new IntStack() : null;
+        while (!bands.isEmpty()) {
+            int last = bands.pop();
+            int first = bands.pop();
+            if (last - first <= 3) continue;
+
+            int mid = (first + last) >>> 1;
+            long key = hash(seed, mid);
+            for (int i = 0; i < gaps.length; i++) {
+                gaps[i] = 1 + (int) below(hash(key, i), Math.max(1, length - 2));
+            }
+            if (columns != null) {
+                columns.push(mid, gaps[0], gaps[1], gaps[2]);
+                columns.push(gaps[3]);
+            } else {
+                drawWithGaps(target, horizontal, mid, 1, length - 2, gaps);
+            }
+            bands.push(mid + 1, last);
+            bands.push(first, mid - 1);
+        }
+        if (columns == null) return;
+
+        BitTarget bits = (BitTarget) target;
+        for (int row = 1; row < length - 1; row++) {
+            for (int i = 0; i < columns.size; i += 5) {
+                int[] c = columns.values;
+                if (row != c[i + 1] && row != c[i + 2] && row != c[i + 3] && row != c[i + 4]) {
+                    bits.cell(row, c[i]);
+                }
+            }
+        }
+    }
+
+    /** Draws cells {@code from} to {@code to} of a line, both inclusive, except the gap cells. */
+    private static void drawWithGaps(Target target, boolean horizontal, int line, int from, int to, int[] gaps) {
+        // Insertion sort; there are only three or four gaps.
+        for (int i = 1; i < gaps.length; i++) {
+            int gap = gaps[i];
+            int j = i;
+            for (; j > 0 && gaps[j - 1] > gap; j--) {
+                gaps[j] = gaps[j - 1];
+            }
+            gaps[j] = gap;
+        }
+        int next = from;
+        for (int gap : gaps) {
+            if (gap < next) continue;
+            span(target, horizontal, line, next, Math.min(gap - 1, to));
+            next = gap + 1;
+        }
+        span(target, horizontal, line, next, to);
+    }
+
+    private static void span(Target target, boolean horizontal, int line, int from, int to) {
+        if (from > to) return;
+        if (horizontal) {
+            target.row(line, from, to);
+        } else {
+            target.col(line, from, to);
+        }
+    }
+
+    /**
+     * Divides one chamber, bounded by walls at its min and max row and
+     * column, and every chamber inside it. Sub-chambers big enough to be
+     * worth a thread are forked off; the rest wait on a local stack.
+     */
+    @SuppressWarnings("serial")
+    private static final class DivisionTask extends RecursiveAction {
+        private final long seed;
+        private final Target target;
+        private final boolean parallel;
+        private final int minRow, maxRow, minCol, maxCol;
+
+        DivisionTask(long seed, Target target, boolean parallel, int minRow, int maxRow, int minCol, int maxCol) {
+            this.seed = seed;
+            this.target = target;
+            this.parallel = parallel;
+            this.minRow = minRow;
+            this.maxRow = maxRow;
+            this.minCol = minCol;
+            this.maxCol = maxCol;
+        }
+
+        @Override
+        protected void compute() {
+            List<DivisionTask> forked = new ArrayList<>();
+            IntStack chambers = new IntStack();
+            chambers.push(minRow, maxRow, minCol, maxCol);
+            int[] gaps = new int[3];
+            while (!chambers.isEmpty()) {
+                int right = chambers.pop();
+                int left = chambers.pop();
+                int bottom = chambers.pop();
+                int top = chambers.pop();
+                if (bottom - top <= 5 || right - left <= 5) continue;
+
+                // The chamber's bounds, not the order it was reached in, pick its wall.
+                long key = hash(hash(seed, ((long) top << 32) | bottom), ((long) left << 32) | right);
+                if (bottom - top >= right - left) {
+                    int wall = top + 2 + (int) below(hash(key, 0), (bottom - 2) - (top + 2));
+                    for (int i = 0; i < gaps.length; i++) {
+                        gaps[i] = left + 1 + (int) below(hash(key, i + 1), right - left - 2);
+                    }
+                    drawWithGaps(target, true, wall, left + 1, right - 1, gaps);
+                    divide(chambers, forked, wall, bottom, left, right);
+                    divide(chambers, forked, top, wall, left, right);
+                } else {
+                    int wall = left + 2 + (int) below(hash(key, 0), (right - 2) - (left + 2));
+                    for (int i = 0; i < gaps.length; i++) {
+                        gaps[i] = top + 1 + (int) below(hash(key, i + 1), bottom - top - 2);
+                    }
+                    drawWithGaps(target, false, wall, top + 1, bottom - 1, gaps);
+                    divide(chambers, forked, top, bottom, wall, right);
+                    divide(chambers, forked, top, bottom, left, wall);
+                }
+            }
+            for (DivisionTask task : forked) {
+                task.join();
+            }
+        }
+
+        private void divide(IntStack chambers, List<DivisionTask> forked, int top, int bottom, int left, int right) {
+            if (parallel && (long) (bottom - top) * (right - left) >= PARALLEL_CELLS) {
+                DivisionTask task = new DivisionTask(seed, target, true, top, bottom, left, right);
+                task.fork();
+                forked.add(task);
+            } else {
+                chambers.push(top, bottom, left, right);
+            }
+        }
+    }
+
+    /** Where walls are drawn: runs along a row or a column, both ends inclusive. */
+    private interface Target {
+        void row(int row, int fromCol, int toCol);
+
+        void col(int col, int fromRow, int toRow);
+
+        default void cell(int row, int col) {
+            row(row, col, col);
+        }
+    }
+
+    /**
+     * Draws into a bitset, a word at a time along rows. Chambers generated
+     * in parallel can share a word at their edges, so words are then set
+     * with an atomic or.
+     */
+    private static final class BitTarget implements Target {
+        final long[] words;
+        private final int cols;
+        private final boolean atomic;
+
+        BitTarget(long[] words, int cols, boolean atomic) {
+            this.words = words;
+            this.cols = cols;
+            this.atomic = atomic;
+        }
+
+        @Override
+        public void row(int row, int fromCol, int toCol) {
+            int from = row * cols + fromCol;
+            int to = row * cols + toCol;
+            int first = from >>> 6;
+            int last = to >>> 6;
+            if (first == last) {
+                set(first, (-1L << from) & (-1L >>> (63 - (to & 63))));
+                return;
+            }
+            set(first, -1L << from);
+            for (int i = first + 1; i < last; i++) {
+                set(i, -1L);
+            }
+            set(last, -1L >>> (63 - (to & 63)));
+        }
+
+        @Override
+        public void col(int col, int fromRow, int toRow) {
+            for (int row = fromRow; row <= toRow; row++) {
+                cell(row, col);
+            }
+        }
+
+        @Override
+        public void cell(int row, int col) {
+            int cell = row * cols + col;
+            set(cell >>> 6, 1L << cell);
+        }
+
+        private void set(int i, long mask) {
+            if (atomic) {
+                WORDS.getAndBitwiseOr(words, i, mask);
+            } else {
+                words[i] |= mask;
+            }
+        }
+    }
+
+    private static final class SinkTarget implements Target {
+        private final WallSink sink;
+
+        SinkTarget(WallSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void row(int row, int fromCol, int toCol) {
+            for (int col = fromCol; col <= toCol; col++) {
+                sink.setWall(row, col);
+            }
+        }
+
+        @Override
+        public void col(int col, int fromRow, int toRow) {
+            for (int row = fromRow; row <= toRow; row++) {
+                sink.setWall(row, col);
+            }
+        }
+    }
+
+    /** Growable stack of ints, so pending chambers cost no allocation each. */
+    private static final class IntStack {
+        int[] values = new int[64];
+        int size;
+
+        void push(int a) {
+            if (size == values.length) values = Arrays.copyOf(values, values.length * 2);
+            values[size++] = a;
+        }
+
+        void push(int a, int b) {
+            push(a);
+            push(b);
+        }
+
+        void push(int a, int b, int c, int d) {
+            push(a, b);
+            push(c, d);
+        }
+
+        int pop() {
+            return values[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    /** Well-mixed 64 bits from a key and a value (the SplitMix64 finalizer). */
+    private static long hash(long key, long value) {
+        long z = key + (value + 1) * GOLDEN;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Maps a hash to a value from 0 up to, not including, {@code bound}. */
+    private static long below(long hash, long bound) {
+        return Math.multiplyHigh(hash >>> 1, bound << 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates the stats of every search, per algorithm, across runs: a
+ * histogram of compute times plus running totals of the counters. Safe to
+ * record into from many threads at once, such as the workers of a
+ * {@link BatchPathFinder}, and cheap enough to leave on.
+ */
+public class MetricsRegistry implements SearchMetrics {
+
+    /** What the registry has collected for one algorithm. */
+    public static final class Entry {
+        private final LatencyHistogram computeTime = new LatencyHistogram();
+        private final LongAdder expansions = new LongAdder();
+        private final LongAdder pushes = new LongAdder();
+        private final LongAdder decreaseKeys = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder notFound = new LongAdder();
+
+        public LatencyHistogram computeTime() {
+            return computeTime;
+        }
+
+        public long runs() {
+            return computeTime.count();
+        }
+
+        public long expansions() {
+            return expansions.sum();
+        }
+
+        public long pushes() {
+            return pushes.sum();
+        }
+
+        public long decreaseKeys() {
+            return decreaseKeys.sum();
+        }
+
+        public long allocatedBytes() {
+            return allocatedBytes.sum();
+        }
+
+        /** Searches that ended without a path. */
+        public long notFound() {
+            return notFound.sum();
+        }
+
+        void reset() {
+            computeTime.reset();
+            expansions.reset();
+            pushes.reset();
+            decreaseKeys.reset();
+            allocatedBytes.reset();
+            notFound.reset();
+        }
+    }
+
+    // Filled once up front, so lookups need no locking.
+    private final Map<Algorithm, Entry> entries = new EnumMap<>(Algorithm.class);
+
+    public MetricsRegistry() {
+        for (Algorithm algorithm : Algorithm.values()) {
+            entries.put(algorithm, new Entry());
+        }
+    }
+
+    @Override
+    public void record(SearchStats stats) {
+        Entry entry = entries.get(stats.algorithm);
+        entry.computeTime.record(stats.computeNanos);
+        entry.expansions.add(stats.expansions);
+        entry.pushes.add(stats.pushes);
+        entry.decreaseKeys.add(stats.decreaseKeys);
+        if (stats.allocatedBytes > 0) entry.allocatedBytes.add(stats.allocatedBytes);
+        if (!stats.found()) entry.notFound.increment();
+    }
+
+    public Entry get(Algorithm algorithm) {
+        return entries.get(algorithm);
+    }
+
+    public void reset() {
+        for (Entry entry : entries.values()) {
+            entry.reset();
+        }
+    }
+
+    /** One line per algorithm that has run, for logs. */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<Algorithm, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            long runs = entry.runs();
+            if (runs == 0) continue;
+            report.append(String.format("%-30s %s, %d expanded/run, %d bytes/run%n", e.getKey(), entry.computeTime,
+                    entry.expansions() / runs, entry.allocatedBytes() / runs));
+        }
+        return report.toString();
+    }
+}
\ No newline at end of file
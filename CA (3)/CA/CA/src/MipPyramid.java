@@ -0,0 +1,106 @@
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Downsampled copies of a per-cell layer, for drawing a grid zoomed out. Level
+ * {@code k} holds the mean value, from 0 to 255, of every 2^k x 2^k block of
+ * cells, so a view showing one pixel per block reads one entry per pixel
+ * instead of visiting every cell underneath. Level 0 is the layer itself and
+ * is read from the source rather than stored, so the pyramid costs about a
+ * third of a byte per cell.
+ *
+ * <p>A changed cell costs at most one entry per level to bring up to date,
+ * and less when the change averages away. Updates are synchronized with each
+ * other; readers are not, and may see a level mid-update.
+ */
+public class MipPyramid {
+    private final int rows;
+    private final int cols;
+    private final IntUnaryOperator source;
+    // levels[k] for k >= 1, row-major; levels[0] stays null.
+    private final byte[][] levels;
+
+    /** Builds a pyramid over {@code source}, which maps a cell index to its value from 0 to 255. */
+    public MipPyramid(int rows, int cols, IntUnaryOperator source) {
+        this.rows = rows;
+        this.cols = cols;
+        this.source = source;
+        int count = 1;
+        while (((Math.max(rows, cols) - 1) >> (count - 1)) > 0) {
+            count++;
+        }
+        levels = new byte[count][];
+        for (int level = 1; level < count; level++) {
+            levels[level] = new byte[rows(level) * cols(level)];
+        }
+        rebuild();
+    }
+
+    /** Number of levels, the last one being a single entry for the whole grid. */
+    public int levels() {
+        return levels.length;
+    }
+
+    public int rows(int level) {
+        return ((rows - 1) >> level) + 1;
+    }
+
+    public int cols(int level) {
+        return ((cols - 1) >> level) + 1;
+    }
+
+    /** Mean value of the block at {@code row}, {@code col} of {@code level}, from 0 to 255. */
+    public int value(int level, int row, int col) {
+        if (level == 0) return source.applyAsInt(row * cols + col);
+        return levels[level][row * cols(level) + col] & 0xFF;
+    }
+
+    /** Brings every level up to date after the value of {@code cell} changed. */
+    public synchronized void update(int cell) {
+        int row = cell / cols;
+        int col = cell % cols;
+        for (int level = 1; level < levels.length; level++) {
+            row >>= 1;
+            col >>= 1;
+            byte mean = (byte) mean(level - 1, row, col);
+            int i = row * cols(level) + col;
+            if (levels[level][i] == mean) break;
+            levels[level][i] = mean;
+        }
+    }
+
+    /** Recomputes every level, after many cells changed at once. */
+    public synchronized void rebuild() {
+        for (int level = 1; level < levels.length; level++) {
+            byte[] entries = levels[level];
+            int levelCols = cols(level);
+            for (int row = 0, levelRows = rows(level); row < levelRows; row++) {
+                for (int col = 0; col < levelCols; col++) {
+                    entries[row * levelCols + col] = (byte) mean(level - 1, row, col);
+                }
+            }
+        }
+    }
+
+    /** Sets every level to 0, for a source that was just cleared, without reading it. */
+    public synchronized void clear() {
+        for (int level = 1; level < levels.length; level++) {
+            Arrays.fill(levels[level], (byte) 0);
+        }
+    }
+
+    /** Mean of the up to four entries of {@code childLevel} under one entry of the level above. */
+    private int mean(int childLevel, int row, int col) {
+        int childRows = childLevel == 0 ? rows : rows(childLevel);
+        int childCols = childLevel == 0 ? cols : cols(childLevel);
+        int sum = 0;
+        int count = 0;
+        for (int r = row * 2; r < row * 2 + 2 && r < childRows; r++) {
+            for (int c = col * 2; c < col * 2 + 2 && c < childCols; c++) {
+                sum += value(childLevel, r, c);
+                count++;
+            }
+        }
+        return (sum + count / 2) / count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+/**
+ * Min-priority queue of cells with integer keys, for searches whose keys never
+ * go down: every key added is at least the key last polled. Dijkstra's
+ * algorithm, and A* with a consistent heuristic, need nothing more, and that
+ * promise lets {@link BucketQueue} and {@link RadixHeap} beat a binary heap.
+ *
+ * <p>There is no decrease-key. A cell whose key improves is added again, and
+ * the caller skips the stale copy when it comes out.
+ */
+public interface MonotoneQueue {
+
+    /** @throws IllegalArgumentException if {@code key} is below {@link #lastKey()} */
+    void add(int cell, int key);
+
+    /** Removes and returns a cell with the smallest key. */
+    int poll();
+
+    /** Key of the cell {@link #poll()} returned last, or 0 before the first poll. */
+    int lastKey();
+
+    boolean isEmpty();
+
+    int size();
+
+    void clear();
+}
\ No newline at end of file
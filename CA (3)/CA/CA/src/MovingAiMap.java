@@ -0,0 +1,91 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads and writes the plain-text {@code .map} format of the Moving AI grid
+ * benchmarks: a short header followed by one line of characters per row.
+ *
+ * <pre>
+ * type octile
+ * height 3
+ * width 4
+ * map
+ * ..@.
+ * .@@.
+ * ....
+ * </pre>
+ *
+ * Ground ({@code .} and {@code G}) and swamp ({@code S}) are open; trees,
+ * water and out-of-bounds ({@code T}, {@code W}, {@code @}, {@code O}) are
+ * walls. Swamp reads as plain ground, and since the format has no terrain
+ * costs, {@link #write} leaves them out.
+ */
+public class MovingAiMap {
+
+    public static CompactGrid read(Path file) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            int height = -1;
+            int width = -1;
+            String line;
+            while ((line = in.readLine()) != null && !line.trim().equals("map")) {
+                String[] field = line.trim().split("\\s+");
+                if (field.length != 2) continue;
+                switch (field[0]) {
+                    case "height" -> height = parseSize(field[1], file);
+                    case "width" -> width = parseSize(field[1], file);
+                    default -> { }
+                }
+            }
+            if (line == null || height <= 0 || width <= 0) {
+                throw new IOException("Missing height, width or map line: " + file);
+            }
+
+            CompactGrid grid = new CompactGrid(height, width);
+            for (int row = 0; row < height; row++) {
+                line = in.readLine();
+                if (line == null || line.length() < width) {
+                    throw new IOException("Row " + row + " is missing or shorter than " + width + ": " + file);
+                }
+                for (int col = 0; col < width; col++) {
+                    if (isWall(line.charAt(col))) {
+                        grid.setWall(row, col, true);
+                    }
+                }
+            }
+            return grid;
+        }
+    }
+
+    public static void write(Path file, CompactGrid grid) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            out.write("type octile\n");
+            out.write("height " + grid.rows() + "\n");
+            out.write("width " + grid.cols() + "\n");
+            out.write("map\n");
+            char[] line = new char[grid.cols() + 1];
+            line[grid.cols()] = '\n';
+            for (int row = 0; row < grid.rows(); row++) {
+                for (int col = 0; col < grid.cols(); col++) {
+                    line[col] = grid.isWall(row, col) ? '@' : '.';
+                }
+                out.write(line);
+            }
+        }
+    }
+
+    private static boolean isWall(char terrain) {
+        return terrain != '.' && terrain != 'G' && terrain != 'S';
+    }
+
+    private static int parseSize(String value, Path file) throws IOException {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Bad map size '" + value + "': " + file, e);
+        }
+    }
+}
\ No newline at end of file
@@ -1,27 +1,108 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.util.concurrent.TimeUnit;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Nodee extends JPanel {
     private int rows = 30;
     private int cols = 50;
     private int cellSize = 20;
-    private Node[][] grid;
-    private Node startNode;
-    private Node endNode;
+    private CompactGrid grid;
+    private SearchContext searchContext;
+    // Every run's stats, per algorithm, for the median shown next to each time.
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    // The search overlay as last drawn; only the EDT touches these, applying frames from the worker.
+    private final BitSet visited = new BitSet();
+    private final BitSet path = new BitSet();
+    private volatile int startCell = -1;
+    private volatile int endCell = -1;
+
+    // Searches, generators and edits all run on this one worker, each new one
+    // cancelling the last, so the grid has a single writer. The worker never
+    // touches the view: it records what it changed and hands it over as
+    // immutable frames, which the EDT applies at display rate.
+    private final LatestTaskRunner tasks = new LatestTaskRunner("pathfinding-worker");
+    private final FrameBuilder frameBuilder = new FrameBuilder();
+    private final Queue<Frame> frames = new ConcurrentLinkedQueue<>();
+
+    // Zoomed in, a cell is cellSize pixels square. Zoomed out (lod > 0), a
+    // pixel stands for a 2^lod x 2^lod block, shaded from the mip pyramids,
+    // which are built on the first zoom out and kept up to date after that.
+    // Building them takes seconds on large maps, so it runs on its own worker
+    // while the EDT notes the cells that change meanwhile in levelsBehind,
+    // and catches the pyramids up on those when swapping them in.
+    private static final int FIT_PIXELS = 1000;
+    private static final int MIN_OVERVIEW_PIXELS = 256;
+    private int lod;
+    private MipPyramid wallLevels;
+    private MipPyramid visitedLevels;
+    private final LatestTaskRunner levelsBuilder = new LatestTaskRunner("overview-builder");
+    private BitSet levelsBehind;
+    private boolean levelsCleared;
+
+    // The visible part of the grid, drawn once into canvas and redrawn only
+    // where cells are marked dirty by the frames applied since. Used on the
+    // EDT only.
+    private static final int FRAME_MILLIS = 16;
+    private BufferedImage canvas;
+    private final Rectangle canvasBounds = new Rectangle();
+    private final BitSet dirty = new BitSet();
+    private boolean allDirty = true;
+    // Grid edits happen on the worker, so they are recorded for the next frame.
+    private final GridChangeListener gridRepainter = new GridChangeListener() {
+        @Override
+        public void wallChanged(int cell) {
+            frameBuilder.changed(cell);
+        }
+
+        @Override
+        public void wallsReset() {
+            frameBuilder.changedAll();
+        }
+
+        @Override
+        public void costChanged(int cell) {
+            frameBuilder.changed(cell);
+        }
+
+        @Override
+        public void costsReset() {
+            frameBuilder.changedAll();
+        }
+    };
+    private JPanel gridPanel;
+    private JScrollPane gridScroll;
 
     private final Color START_COLOR = Color.GREEN;
     private final Color END_COLOR = Color.RED;
     private final Color WALL_COLOR = Color.BLACK;
     private final Color VISITED_COLOR = new Color(100, 149, 237);
     private final Color PATH_COLOR = new Color(34, 139, 34);
+    private final Color LIGHT_TERRAIN_COLOR = new Color(245, 235, 200);
+    private final Color HEAVY_TERRAIN_COLOR = new Color(140, 90, 40);
 
-    private JComboBox<String> algorithmCombo;
+    // Cost painted by each brush after "Walls", which toggles walls instead.
+    private static final String[] BRUSHES = {"Walls", "Cost 1", "Cost 5", "Cost 20", "Cost 100"};
+    private static final int[] BRUSH_COSTS = {0, 1, 5, 20, 100};
+
+    private JComboBox<Algorithm> algorithmCombo;
     private JComboBox<String> mazeCombo;
+    private JComboBox<String> brushCombo;
     private JButton runButton, resetButton, clearPathButton;
     private JButton randomMazeButton, recursiveDivButton;
     private JButton increaseSizeButton, decreaseSizeButton;
+    private JButton openButton, saveButton;
+    private JCheckBox animateCheck;
     private JLabel statsLabel;
     private JLabel timeLabel;
     private JLabel nodesLabel;
@@ -30,17 +111,17 @@ public class Nodee extends JPanel {
         initializeGrid();
         setupUI();
         setupEventHandlers();
+        new Timer(FRAME_MILLIS, e -> drawFrame()).start();
     }
 
     private void initializeGrid() {
-        grid = new Node[rows][cols];
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                grid[i][j] = new Node(i, j);
-            }
-        }
-        startNode = null;
-        endNode = null;
+        grid = new CompactGrid(rows, cols);
+        grid.addChangeListener(gridRepainter);
+        searchContext = new SearchContext(grid.size());
+        visited.clear();
+        path.clear();
+        startCell = -1;
+        endCell = -1;
     }
 
     private void setupUI() {
@@ -48,15 +129,15 @@ public class Nodee extends JPanel {
 
         JPanel controlPanel = new JPanel(new FlowLayout());
 
-        algorithmCombo = new JComboBox<>(new String[]{
-                "A* (Manhattan)", "A* (Euclidean)", "BFS", "Dijkstra's", "DFS", "Greedy BFS"
-        });
+        algorithmCombo = new JComboBox<>(Algorithm.values());
 
         mazeCombo = new JComboBox<>(new String[]{
                 "Random Maze", "Recursive Division",
                 "Recursive Division (Horizontal)", "Recursive Division (Vertical)", "Simple Maze"
         });
 
+        brushCombo = new JComboBox<>(BRUSHES);
+
         runButton = new JButton("Run Algorithm");
         resetButton = new JButton("Reset All");
         clearPathButton = new JButton("Clear Path");
@@ -64,6 +145,9 @@ public class Nodee extends JPanel {
         recursiveDivButton = new JButton("Recursive Division");
         increaseSizeButton = new JButton("+");
         decreaseSizeButton = new JButton("-");
+        openButton = new JButton("Open...");
+        saveButton = new JButton("Save...");
+        animateCheck = new JCheckBox("Animate", true);
         statsLabel = new JLabel(" ");
         timeLabel = new JLabel("Time: -");
         nodesLabel = new JLabel("Nodes: -");
@@ -71,27 +155,38 @@ public class Nodee extends JPanel {
         controlPanel.add(new JLabel("Algorithm:"));
         controlPanel.add(algorithmCombo);
         controlPanel.add(runButton);
+        controlPanel.add(animateCheck);
         controlPanel.add(clearPathButton);
         controlPanel.add(resetButton);
         controlPanel.add(new JLabel("Maze:"));
         controlPanel.add(mazeCombo);
-        controlPanel.add(new JLabel("Cell Size:"));
+        controlPanel.add(new JLabel("Brush:"));
+        controlPanel.add(brushCombo);
+        controlPanel.add(new JLabel("Zoom:"));
         controlPanel.add(decreaseSizeButton);
         controlPanel.add(increaseSizeButton);
+        controlPanel.add(openButton);
+        controlPanel.add(saveButton);
         controlPanel.add(timeLabel);
         controlPanel.add(nodesLabel);
         controlPanel.add(statsLabel);
 
         add(controlPanel, BorderLayout.NORTH);
 
-        JPanel gridPanel = new JPanel() {
+        gridPanel = new JPanel() {
             protected void paintComponent(Graphics g) {
                 super.paintComponent(g);
-                drawGrid(g);
+                Rectangle visible = getVisibleRect();
+                if (visible.isEmpty()) return;
+                if (canvas == null || !canvasBounds.equals(visible)) drawCanvas(visible);
+                g.drawImage(canvas, canvasBounds.x, canvasBounds.y,
+                        canvasBounds.x + canvasBounds.width, canvasBounds.y + canvasBounds.height,
+                        0, 0, canvasBounds.width, canvasBounds.height, null);
             }
 
             public Dimension getPreferredSize() {
-                return new Dimension(cols * cellSize, rows * cellSize);
+                if (lod > 0) return new Dimension(((cols - 1) >> lod) + 1, ((rows - 1) >> lod) + 1);
+                return new Dimension(cols * cellSize + 1, rows * cellSize + 1);
             }
         };
 
@@ -102,14 +197,18 @@ public class Nodee extends JPanel {
             }
         });
 
-        add(gridPanel, BorderLayout.CENTER);
+        gridScroll = new JScrollPane(gridPanel);
+        gridScroll.getVerticalScrollBar().setUnitIncrement(16);
+        gridScroll.getHorizontalScrollBar().setUnitIncrement(16);
+        add(gridScroll, BorderLayout.CENTER);
 
-        JPanel legendPanel = new JPanel(new GridLayout(1, 5));
+        JPanel legendPanel = new JPanel(new GridLayout(1, 6));
         addLegendItem(legendPanel, START_COLOR, "Start");
         addLegendItem(legendPanel, END_COLOR, "End");
         addLegendItem(legendPanel, WALL_COLOR, "Wall");
         addLegendItem(legendPanel, VISITED_COLOR, "Visited");
         addLegendItem(legendPanel, PATH_COLOR, "Path");
+        addLegendItem(legendPanel, terrainColor(BRUSH_COSTS[BRUSH_COSTS.length - 1]), "Costly terrain");
         add(legendPanel, BorderLayout.SOUTH);
     }
 
@@ -126,271 +225,687 @@ public class Nodee extends JPanel {
         runButton.addActionListener(this::runAlgorithm);
         resetButton.addActionListener(e -> resetAll());
         clearPathButton.addActionListener(e -> clearPath());
-        increaseSizeButton.addActionListener(e -> adjustCellSize(2));
-        decreaseSizeButton.addActionListener(e -> adjustCellSize(-2));
+        increaseSizeButton.addActionListener(e -> zoom(true));
+        decreaseSizeButton.addActionListener(e -> zoom(false));
+        openButton.addActionListener(e -> openMap());
+        saveButton.addActionListener(e -> saveMap());
 
         mazeCombo.addActionListener(e -> {
             String selected = (String) mazeCombo.getSelectedItem();
             switch (selected) {
-                case "Random Maze" -> generateRandomMaze();
-                case "Recursive Division" -> generateRecursiveDivisionMaze();
-                case "Recursive Division (Horizontal)" -> generateRecursiveDivisionVerticalMaze();
-                case "Recursive Division (Vertical)" -> generateRecursiveDivisionHorizontalMaze();
-                case "Simple Maze" -> generateSimpleMaze();
+                case "Random Maze" -> generateMaze(MazeGenerator.Style.RANDOM, 10);
+                case "Recursive Division" -> generateMaze(MazeGenerator.Style.RECURSIVE_DIVISION, 1);
+                case "Recursive Division (Horizontal)" -> generateMaze(MazeGenerator.Style.HORIZONTAL_WALLS, 1);
+                case "Recursive Division (Vertical)" -> generateMaze(MazeGenerator.Style.VERTICAL_WALLS, 1);
+                case "Simple Maze" -> generateMaze(MazeGenerator.Style.SCATTER, 11);
             }
         });
     }
 
     private void runAlgorithm(ActionEvent e) {
-        if (startNode == null || endNode == null) {
+        if (startCell < 0 || endCell < 0) {
             statsLabel.setText("Please set both start and end nodes");
             return;
         }
 
-        String selectedAlgo = (String) algorithmCombo.getSelectedItem();
-        new Thread(() -> {
-            long startTime = System.nanoTime();
-            int nodesExplored = 0;
-
-            switch (selectedAlgo) {
-                case "A* (Manhattan)" -> nodesExplored = Algorithms.aStar(grid, startNode, endNode, false);
-                case "A* (Euclidean)" -> nodesExplored = Algorithms.aStar(grid, startNode, endNode, true);
-                case "BFS" -> nodesExplored = Algorithms.bfs(grid, startNode, endNode);
-                case "Dijkstra's" -> nodesExplored = Algorithms.dijkstra(grid, startNode, endNode);
-                case "DFS" -> nodesExplored = Algorithms.dfs(grid, startNode, endNode);
-                case "Greedy BFS" -> nodesExplored = Algorithms.greedyBFS(grid, startNode, endNode);
+        Algorithm selectedAlgo = (Algorithm) algorithmCombo.getSelectedItem();
+        SearchListener listener = new DisplayListener(animateCheck.isSelected());
+        statsLabel.setText(String.format("%s running...", selectedAlgo));
+        runTask(() -> {
+            frameBuilder.clearSearch();
+            SearchStats stats;
+            try {
+                stats = selectedAlgo.measure(grid, startCell, endCell, searchContext, listener, metrics);
+            } catch (CancellationException ex) {
+                // A search stopped midway may leave helper state behind, like a
+                // half-updated D* Lite planner, so the next one starts afresh.
+                searchContext.close();
+                searchContext = new SearchContext(grid.size());
+                throw ex;
             }
 
-            long duration = System.nanoTime() - startTime;
-            double seconds = duration / 1_000_000_000.0;
-            timeLabel.setText(String.format("Time: %.3f s", seconds));
-            nodesLabel.setText(String.format("Nodes: %d", nodesExplored));
-            statsLabel.setText(String.format("%s completed", selectedAlgo));
-            repaint();
-        }).start();
-    }
-
-    private void drawGrid(Graphics g) {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                Node node = grid[i][j];
-                Color color = Color.WHITE;
-
-                if (node.isStart) color = START_COLOR;
-                else if (node.isEnd) color = END_COLOR;
-                else if (node.isWall) color = WALL_COLOR;
-                else if (node.isPath) color = PATH_COLOR;
-                else if (node.isVisited) color = VISITED_COLOR;
-
-                g.setColor(color);
-                g.fillRect(j * cellSize, i * cellSize, cellSize, cellSize);
-                g.setColor(Color.LIGHT_GRAY);
-                g.drawRect(j * cellSize, i * cellSize, cellSize, cellSize);
+            // Compute time leaves out the animation's pauses, so runs compare fairly either way.
+            LatencyHistogram history = metrics.get(selectedAlgo).computeTime();
+            String time = String.format("Time: %.3f ms (median %.3f ms over %d runs)",
+                    stats.computeNanos / 1e6, history.percentile(50) / 1e6, history.count());
+            String status = stats.found()
+                    ? String.format("%s completed, path cost %d", selectedAlgo, stats.pathCost)
+                    : String.format("%s completed, no path", selectedAlgo);
+            SwingUtilities.invokeLater(() -> {
+                timeLabel.setText(time);
+                nodesLabel.setText(String.format("Nodes: %d", stats.expansions));
+                statsLabel.setText(status);
+            });
+        });
+    }
+
+    /** Runs {@code job} on the worker in place of whatever is running there, then publishes its last changes. */
+    private void runTask(Runnable job) {
+        tasks.submit(publishing(job));
+    }
+
+    /** Like {@link #runTask}, for edits, which still stop a running job but always get applied themselves. */
+    private void runEdit(Runnable edit) {
+        tasks.submitUncancellable(publishing(edit));
+    }
+
+    private Runnable publishing(Runnable job) {
+        return () -> {
+            try {
+                job.run();
+            } finally {
+                frameBuilder.publish();
             }
+        };
+    }
+
+    /**
+     * Records expanded and path cells for drawing and stops the search if it
+     * has been cancelled. When animating it also pauses after every step, so
+     * the user can follow the search.
+     */
+    private class DisplayListener implements SearchListener {
+        private final boolean animate;
+
+        DisplayListener(boolean animate) {
+            this.animate = animate;
+        }
+
+        @Override
+        public void nodeExpanded(int cell) {
+            LatestTaskRunner.checkCancelled();
+            frameBuilder.expanded(cell);
+            if (animate) pause(5);
+        }
+
+        @Override
+        public void pathCell(int cell) {
+            LatestTaskRunner.checkCancelled();
+            frameBuilder.pathCell(cell);
+            if (animate) pause(20);
         }
     }
 
-    private void handleGridClick(java.awt.event.MouseEvent evt) {
-        int col = evt.getX() / cellSize;
-        int row = evt.getY() / cellSize;
+    private void markAllDirty() {
+        allDirty = true;
+    }
 
-        if (row >= 0 && row < rows && col >= 0 && col < cols) {
-            Node clickedNode = grid[row][col];
-            if (SwingUtilities.isLeftMouseButton(evt)) {
-                if (startNode == null) {
-                    startNode = clickedNode;
-                    clickedNode.isStart = true;
-                } else if (endNode == null && !clickedNode.isStart) {
-                    endNode = clickedNode;
-                    clickedNode.isEnd = true;
-                } else if (!clickedNode.isStart && !clickedNode.isEnd) {
-                    clickedNode.isWall = !clickedNode.isWall;
-                }
-            }
-            repaint();
+    /**
+     * What the worker changed since its last frame, handed to the EDT as an
+     * immutable snapshot. Frames are applied in order, so the EDT's copy of
+     * the search overlay follows the worker's without sharing any state.
+     */
+    private static final class Frame {
+        // Visited and path cells were wiped before anything below happened.
+        final boolean clearSearch;
+        // Too much of the grid changed to list, so all of it is redrawn.
+        final boolean all;
+        final int[] expanded;
+        final int[] pathCells;
+        final int[] changed;
+
+        Frame(boolean clearSearch, boolean all, int[] expanded, int[] pathCells, int[] changed) {
+            this.clearSearch = clearSearch;
+            this.all = all;
+            this.expanded = expanded;
+            this.pathCells = pathCells;
+            this.changed = changed;
         }
     }
 
-    private void resetAll() {
-        for (Node[] row : grid) {
-            for (Node node : row) {
-                node.reset();
+    /**
+     * Collects changes on the worker and publishes them as a {@link Frame} at
+     * most once per frame interval, and once more when the job ends, so a
+     * fast search costs the EDT one frame per interval rather than one
+     * update per cell. Used by the worker thread only.
+     */
+    private final class FrameBuilder {
+        private final CellList expanded = new CellList();
+        private final CellList pathCells = new CellList();
+        private final CellList changed = new CellList();
+        private boolean clearSearch;
+        private boolean all;
+        private long nextFrame;
+
+        void expanded(int cell) {
+            expanded.add(cell);
+            publishIfDue();
+        }
+
+        void pathCell(int cell) {
+            pathCells.add(cell);
+            publishIfDue();
+        }
+
+        void changed(int cell) {
+            changed.add(cell);
+            publishIfDue();
+        }
+
+        void changedAll() {
+            all = true;
+            changed.clear();
+        }
+
+        /** Wipes the search overlay, dropping any of its cells not yet published. */
+        void clearSearch() {
+            clearSearch = true;
+            expanded.clear();
+            pathCells.clear();
+        }
+
+        private void publishIfDue() {
+            if (System.nanoTime() - nextFrame >= 0) publish();
+        }
+
+        void publish() {
+            nextFrame = System.nanoTime() + FRAME_MILLIS * 1_000_000L;
+            if (!clearSearch && !all && expanded.isEmpty() && pathCells.isEmpty() && changed.isEmpty()) return;
+            frames.add(new Frame(clearSearch, all, expanded.toArray(), pathCells.toArray(), changed.toArray()));
+            clearSearch = false;
+            all = false;
+            expanded.clear();
+            pathCells.clear();
+            changed.clear();
+        }
+    }
+
+    /** Growable list of cell indices. */
+    private static final class CellList {
+        private int[] cells = new int[256];
+        private int size;
+
+        void add(int cell) {
+            if (size == cells.length) cells = Arrays.copyOf(cells, size * 2);
+            cells[size++] = cell;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(cells, size);
+        }
+    }
+
+    /** Brings the EDT's overlay and mip levels up to date with one frame from the worker. */
+    private void applyFrame(Frame frame) {
+        if (frame.clearSearch) {
+            dirty.or(visited);
+            dirty.or(path);
+            visited.clear();
+            path.clear();
+            if (visitedLevels != null) visitedLevels.clear();
+            levelsCleared = true;
+        }
+        if (frame.all) {
+            if (wallLevels != null) wallLevels.rebuild();
+            // Catching up on every cell would cost the build again, so a build under way starts over.
+            if (levelsBehind != null) {
+                levelsBehind = null;
+                buildLevels();
             }
+            allDirty = true;
+        }
+        for (int cell : frame.expanded) {
+            visited.set(cell);
+            if (visitedLevels != null) visitedLevels.update(cell);
+            if (levelsBehind != null) levelsBehind.set(cell);
+            dirty.set(cell);
+        }
+        for (int cell : frame.pathCells) {
+            path.set(cell);
+            dirty.set(cell);
+        }
+        for (int cell : frame.changed) {
+            if (wallLevels != null) wallLevels.update(cell);
+            if (levelsBehind != null) levelsBehind.set(cell);
+            dirty.set(cell);
         }
-        startNode = null;
-        endNode = null;
-        statsLabel.setText(" ");
-        timeLabel.setText("Time: -");
-        nodesLabel.setText("Nodes: -");
-        repaint();
     }
 
-    private void clearPath() {
-        for (Node[] row : grid) {
-            for (Node node : row) {
-                if (!node.isStart && !node.isEnd && !node.isWall) {
-                    node.isVisited = false;
-                    node.isPath = false;
-                }
+    /**
+     * Applies the frames the worker published since the last tick, redraws
+     * the visible cells they touched into the canvas and repaints the
+     * rectangle around them, so a frame costs what changed rather than the
+     * whole grid. Runs on the EDT from the frame timer.
+     */
+    private void drawFrame() {
+        for (Frame frame; (frame = frames.poll()) != null; ) {
+            applyFrame(frame);
+        }
+        if (!allDirty && dirty.isEmpty()) return;
+        // Until the panel is first painted there is nothing to update.
+        if (canvas == null) return;
+
+        boolean all = allDirty;
+        BitSet changed = (BitSet) dirty.clone();
+        dirty.clear();
+        allDirty = false;
+        if (all) {
+            drawCanvas(new Rectangle(canvasBounds));
+            gridPanel.repaint(canvasBounds);
+            return;
+        }
+        Rectangle area = null;
+        Graphics2D g = canvas.createGraphics();
+        try {
+            g.translate(-canvasBounds.x, -canvasBounds.y);
+            for (int cell = changed.nextSetBit(0); cell >= 0 && cell < grid.size(); cell = changed.nextSetBit(cell + 1)) {
+                Rectangle bounds = cellBounds(cell);
+                if (!bounds.intersects(canvasBounds)) continue;
+                drawCell(g, cell);
+                area = area == null ? bounds : area.union(bounds);
             }
+        } finally {
+            g.dispose();
         }
-        repaint();
+        if (area == null) return;
+        if (lod > 0) {
+            // A redrawn block may have covered part of the path or a marker.
+            drawOverlay();
+            area = canvasBounds;
+        }
+        gridPanel.repaint(area);
     }
 
-    private void adjustCellSize(int delta) {
-        cellSize = Math.max(10, Math.min(50, cellSize + delta));
-        revalidate();
-        repaint();
-    }
-
-    private void generateRandomMaze() {
-        new Thread(() -> {
-            clearWalls();
-            int wallCount = (int) (rows * cols * 0.25);
-            for (int i = 0; i < wallCount; i++) {
-                int r = (int) (Math.random() * rows);
-                int c = (int) (Math.random() * cols);
-                if (grid[r][c] != startNode && grid[r][c] != endNode) {
-                    grid[r][c].isWall = true;
+    /** Redraws the whole canvas to hold {@code area} of the grid panel, and nothing outside it. */
+    private void drawCanvas(Rectangle area) {
+        if (canvas == null || canvas.getWidth() < area.width || canvas.getHeight() < area.height) {
+            canvas = new BufferedImage(area.width, area.height, BufferedImage.TYPE_INT_RGB);
+        }
+        canvasBounds.setBounds(area);
+
+        Graphics2D g = canvas.createGraphics();
+        try {
+            g.setColor(Color.LIGHT_GRAY);
+            g.fillRect(0, 0, area.width, area.height);
+            g.translate(-area.x, -area.y);
+            if (lod == 0) {
+                int lastRow = Math.min(rows - 1, (area.y + area.height - 1) / cellSize);
+                int lastCol = Math.min(cols - 1, (area.x + area.width - 1) / cellSize);
+                for (int row = area.y / cellSize; row <= lastRow; row++) {
+                    for (int col = area.x / cellSize; col <= lastCol; col++) {
+                        drawCell(g, grid.index(row, col));
+                    }
+                }
+            } else if (wallLevels != null) {
+                int lastRow = Math.min(wallLevels.rows(lod), area.y + area.height);
+                int lastCol = Math.min(wallLevels.cols(lod), area.x + area.width);
+                for (int row = area.y; row < lastRow; row++) {
+                    for (int col = area.x; col < lastCol; col++) {
+                        canvas.setRGB(col - area.x, row - area.y, blockColor(row, col));
+                    }
                 }
-                repaintSleep(10);
+                drawOverlay();
+            } else {
+                // The pyramids are still being built; the overlay alone shows where things are.
+                drawOverlay();
             }
-        }).start();
+        } finally {
+            g.dispose();
+        }
     }
 
-    private void generateRecursiveDivisionMaze() {
-        new Thread(() -> {
-            clearWalls();
-            addBorders();
-            recursiveDivisionEnhanced(0, rows - 1, 0, cols - 1);
-        }).start();
+    /** Area of the grid panel taken by {@code cell}, or by its block when zoomed out. */
+    private Rectangle cellBounds(int cell) {
+        int row = grid.row(cell), col = grid.col(cell);
+        if (lod > 0) return new Rectangle(col >> lod, row >> lod, 1, 1);
+        return new Rectangle(col * cellSize, row * cellSize, cellSize + 1, cellSize + 1);
     }
 
-    private void recursiveDivisionEnhanced(int minRow, int maxRow, int minCol, int maxCol) {
-        if (maxRow - minRow <= 5 || maxCol - minCol <= 5) return;
+    private void drawCell(Graphics2D g, int cell) {
+        if (lod > 0) {
+            if (wallLevels == null) return;
+            int row = grid.row(cell) >> lod, col = grid.col(cell) >> lod;
+            canvas.setRGB(col - canvasBounds.x, row - canvasBounds.y, blockColor(row, col));
+            return;
+        }
 
-        boolean horizontal = (maxRow - minRow) >= (maxCol - minCol);
+        Color color = Color.WHITE;
+
+        if (cell == startCell) color = START_COLOR;
+        else if (cell == endCell) color = END_COLOR;
+        else if (grid.isWall(cell)) color = WALL_COLOR;
+        else if (path.get(cell)) color = PATH_COLOR;
+        else if (visited.get(cell)) color = VISITED_COLOR;
+        else if (grid.cost(cell) > 1) color = terrainColor(grid.cost(cell));
+
+        int x = grid.col(cell) * cellSize;
+        int y = grid.row(cell) * cellSize;
+        g.setColor(color);
+        // Grid lines would cover tiny cells entirely, so they only go around cells big enough to show them.
+        if (cellSize < 4) {
+            g.fillRect(x, y, cellSize, cellSize);
+        } else {
+            g.fillRect(x + 1, y + 1, cellSize - 1, cellSize - 1);
+            g.setColor(Color.LIGHT_GRAY);
+            g.drawRect(x, y, cellSize, cellSize);
+        }
+    }
 
-        if (horizontal) {
-            int randRow = minRow + 2 + (int) (Math.random() * ((maxRow - 2) - (minRow + 2)));
-            for (int i = minCol + 1; i < maxCol; i++) {
-                grid[randRow][i].isWall = true;
-                repaintSleep(1);
-            }
+    /**
+     * Colour of one overview pixel: white, tinted by the share of visited cells
+     * in its block and darkened by the share of walls. Terrain costs are left
+     * out of the overview.
+     */
+    private int blockColor(int row, int col) {
+        int rgb = mix(Color.WHITE.getRGB(), VISITED_COLOR.getRGB(), visitedLevels.value(lod, row, col));
+        return mix(rgb, WALL_COLOR.getRGB(), wallLevels.value(lod, row, col));
+    }
 
-            for (int i = 0; i < 3; i++) {
-                int gap = minCol + 1 + (int) (Math.random() * (maxCol - minCol - 2));
-                grid[randRow][gap].isWall = false;
-            }
+    private static int mix(int rgb, int otherRgb, int weight) {
+        int mixed = 0;
+        for (int shift = 0; shift < 24; shift += 8) {
+            int a = rgb >> shift & 0xFF, b = otherRgb >> shift & 0xFF;
+            mixed |= (a + (b - a) * weight / 255) << shift;
+        }
+        return mixed;
+    }
 
-            recursiveDivisionEnhanced(minRow, randRow, minCol, maxCol);
-            recursiveDivisionEnhanced(randRow, maxRow, minCol, maxCol);
-        } else {
-            int randCol = minCol + 2 + (int) (Math.random() * ((maxCol - 2) - (minCol + 2)));
-            for (int i = minRow + 1; i < maxRow; i++) {
-                grid[i][randCol].isWall = true;
-                repaintSleep(1);
-            }
+    /** Draws the path and the start and end cells over the overview, where averaging would wash them out. */
+    private void drawOverlay() {
+        for (int cell = path.nextSetBit(0); cell >= 0; cell = path.nextSetBit(cell + 1)) {
+            plot(cell, PATH_COLOR, 0);
+        }
+        if (startCell >= 0) plot(startCell, START_COLOR, 1);
+        if (endCell >= 0) plot(endCell, END_COLOR, 1);
+    }
 
-            for (int i = 0; i < 3; i++) {
-                int gap = minRow + 1 + (int) (Math.random() * (maxRow - minRow - 2));
-                grid[gap][randCol].isWall = false;
+    private void plot(int cell, Color color, int radius) {
+        int x = (grid.col(cell) >> lod) - canvasBounds.x;
+        int y = (grid.row(cell) >> lod) - canvasBounds.y;
+        for (int dy = -radius; dy <= radius; dy++) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                if (x + dx >= 0 && x + dx < canvasBounds.width && y + dy >= 0 && y + dy < canvasBounds.height) {
+                    canvas.setRGB(x + dx, y + dy, color.getRGB());
+                }
             }
-
-            recursiveDivisionEnhanced(minRow, maxRow, minCol, randCol);
-            recursiveDivisionEnhanced(minRow, maxRow, randCol, maxCol);
         }
     }
 
-    private void generateRecursiveDivisionVerticalMaze() {
-        new Thread(() -> {
-            clearWalls();
-            addBorders();
-            recursiveDivVertical(0, rows - 1);
-        }).start();
+    /** Shades terrain from light to dark brown, on a log scale so that cheap costs stay distinguishable. */
+    private Color terrainColor(int cost) {
+        double t = Math.log(cost) / Math.log(CompactGrid.MAX_COST);
+        return new Color(
+                (int) (LIGHT_TERRAIN_COLOR.getRed() + t * (HEAVY_TERRAIN_COLOR.getRed() - LIGHT_TERRAIN_COLOR.getRed())),
+                (int) (LIGHT_TERRAIN_COLOR.getGreen() + t * (HEAVY_TERRAIN_COLOR.getGreen() - LIGHT_TERRAIN_COLOR.getGreen())),
+                (int) (LIGHT_TERRAIN_COLOR.getBlue() + t * (HEAVY_TERRAIN_COLOR.getBlue() - LIGHT_TERRAIN_COLOR.getBlue())));
     }
 
-    private void recursiveDivVertical(int top, int bottom) {
-        if (Math.abs(top - bottom) <= 3) return;
+    private void handleGridClick(java.awt.event.MouseEvent evt) {
+        int col = evt.getX() / cellSize;
+        int row = evt.getY() / cellSize;
 
-        int mid = (top + bottom) / 2;
-        for (int col = 0; col < cols; col++) {
-            grid[mid][col].isWall = true;
-            repaintSleep(1);
+        if (lod > 0) {
+            col = evt.getX() << lod;
+            row = evt.getY() << lod;
         }
-        for (int i = 0; i < 4; i++) {
-            int randCol = (int) (Math.random() * cols);
-            grid[mid][randCol].isWall = false;
+
+        if (row >= 0 && row < rows && col >= 0 && col < cols && SwingUtilities.isLeftMouseButton(evt)) {
+            int clickedCell = grid.index(row, col);
+            int brush = brushCombo.getSelectedIndex();
+            // Edits go through the worker like everything else that writes the grid.
+            runEdit(() -> editCell(clickedCell, brush));
         }
-        recursiveDivVertical(top, mid - 1);
-        recursiveDivVertical(mid + 1, bottom);
     }
 
-    private void generateRecursiveDivisionHorizontalMaze() {
-        new Thread(() -> {
-            clearWalls();
-            addBorders();
-            recursiveDivHorizontal(0, cols - 1);
-        }).start();
+    private void editCell(int cell, int brush) {
+        if (startCell < 0) {
+            startCell = cell;
+            grid.setWall(cell, false);
+            frameBuilder.changed(cell);
+        } else if (endCell < 0 && cell != startCell) {
+            endCell = cell;
+            grid.setWall(cell, false);
+            frameBuilder.changed(cell);
+        } else if (brush > 0) {
+            grid.setWall(cell, false);
+            grid.setCost(cell, BRUSH_COSTS[brush]);
+        } else if (cell != startCell && cell != endCell) {
+            grid.setWall(cell, !grid.isWall(cell));
+        }
     }
 
-    private void recursiveDivHorizontal(int left, int right) {
-        if (Math.abs(left - right) <= 3) return;
+    private void resetAll() {
+        statsLabel.setText(" ");
+        timeLabel.setText("Time: -");
+        nodesLabel.setText("Nodes: -");
+        runEdit(() -> {
+            grid.clearWalls();
+            grid.clearCosts();
+            startCell = -1;
+            endCell = -1;
+            frameBuilder.clearSearch();
+            frameBuilder.changedAll();
+        });
+    }
 
-        int mid = (left + right) / 2;
-        for (int row = 0; row < rows; row++) {
-            grid[row][mid].isWall = true;
-            repaintSleep(1);
-        }
-        for (int i = 0; i < 4; i++) {
-            int randRow = (int) (Math.random() * rows);
-            grid[randRow][mid].isWall = false;
+    private void clearPath() {
+        runTask(frameBuilder::clearSearch);
+    }
+
+    /**
+     * Zooms by one step around the middle of the view. Below one pixel per
+     * cell the view switches to the overview, halving its size per step until
+     * a large map fits on screen.
+     */
+    private void zoom(boolean in) {
+        Rectangle view = gridScroll.getViewport().getViewRect();
+        int centerCol = lod > 0 ? (view.x + view.width / 2) << lod : (view.x + view.width / 2) / cellSize;
+        int centerRow = lod > 0 ? (view.y + view.height / 2) << lod : (view.y + view.height / 2) / cellSize;
+
+        if (in) {
+            if (lod > 0) lod--;
+            else cellSize = cellSize < 10 ? Math.min(10, cellSize * 2) : Math.min(50, cellSize + 2);
+        } else {
+            if (cellSize > 10) cellSize -= 2;
+            else if (cellSize > 1) cellSize /= 2;
+            else if (Math.max(rows, cols) >> (lod + 1) >= MIN_OVERVIEW_PIXELS) lod++;
         }
-        recursiveDivHorizontal(left, mid - 1);
-        recursiveDivHorizontal(mid + 1, right);
+        if (lod > 0) buildLevels();
+
+        gridPanel.revalidate();
+        markAllDirty();
+        int x = lod > 0 ? centerCol >> lod : centerCol * cellSize;
+        int y = lod > 0 ? centerRow >> lod : centerRow * cellSize;
+        SwingUtilities.invokeLater(() -> gridPanel.scrollRectToVisible(
+                new Rectangle(x - view.width / 2, y - view.height / 2, view.width, view.height)));
     }
 
-    private void generateSimpleMaze() {
-        new Thread(() -> {
-            clearWalls();
-            for (int i = 0; i < 200; i++) {
-                int r = (int) (Math.random() * rows);
-                int c = (int) (Math.random() * cols);
-                if (grid[r][c] != startNode && grid[r][c] != endNode) {
-                    grid[r][c].isWall = true;
+    /**
+     * Starts building the mip pyramids on their worker, unless they are built
+     * or being built, and swaps them in on the EDT once done. A build that a
+     * new grid or another build has superseded is dropped.
+     */
+    private void buildLevels() {
+        if (wallLevels != null || levelsBehind != null) return;
+        BitSet behind = new BitSet();
+        levelsBehind = behind;
+        levelsCleared = false;
+        CompactGrid levelsGrid = grid;
+        int levelRows = rows, levelCols = cols;
+        // The worker reads a copy of the EDT's visited cells; once swapped in, the pyramid reads the EDT's own.
+        BitSet[] visitedSource = {(BitSet) visited.clone()};
+        levelsBuilder.submit(() -> {
+            MipPyramid walls = new MipPyramid(levelRows, levelCols, cell -> levelsGrid.isWall(cell) ? 255 : 0);
+            LatestTaskRunner.checkCancelled();
+            MipPyramid visits = new MipPyramid(levelRows, levelCols, cell -> visitedSource[0].get(cell) ? 255 : 0);
+            SwingUtilities.invokeLater(() -> {
+                if (levelsBehind != behind) return;
+                visitedSource[0] = visited;
+                if (levelsCleared) visits.clear();
+                for (int cell = behind.nextSetBit(0); cell >= 0; cell = behind.nextSetBit(cell + 1)) {
+                    walls.update(cell);
+                    visits.update(cell);
                 }
-                repaintSleep(11);
-            }
-        }).start();
+                wallLevels = walls;
+                visitedLevels = visits;
+                levelsBehind = null;
+                markAllDirty();
+            });
+        });
     }
 
-    private void repaintSleep(int millis) {
-        repaint();
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    private JFileChooser mapChooser() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter(
+                "Grid files (*.grid, *.map)", "grid", "map"));
+        return chooser;
+    }
+
+    /**
+     * Opens a binary grid file, or a Moving AI .map file, in place of the
+     * current grid. The file is read on the worker, which then waits while
+     * the EDT swaps the grid in, so nothing runs on the old grid meanwhile.
+     */
+    private void openMap() {
+        JFileChooser chooser = mapChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path file = chooser.getSelectedFile().toPath();
+        statsLabel.setText("Opening " + file.getFileName() + "...");
+        // Stops whatever is running, and is not itself cut short by the next job, which would close the file.
+        tasks.submitUncancellable(() -> {
+            try {
+                CompactGrid loaded;
+                if (file.toString().endsWith(".map")) {
+                    loaded = MovingAiMap.read(file);
+                } else {
+                    GridFile gridFile = GridFile.open(file);
+                    loaded = gridFile.grid();
+                    LandmarkTable.load(gridFile);
+                }
+                SwingUtilities.invokeAndWait(() -> {
+                    setGrid(loaded);
+                    statsLabel.setText("Opened " + file.getFileName());
+                });
+            } catch (IOException | RuntimeException ex) {
+                SwingUtilities.invokeLater(() -> showFileError("Open", file, ex));
+            } catch (InvocationTargetException ex) {
+                SwingUtilities.invokeLater(() -> showFileError("Open", file, ex.getCause()));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
     }
 
-    private void clearWalls() {
-        for (Node[] row : grid) {
-            for (Node node : row) {
-                if (!node.isStart && !node.isEnd) {
-                    node.isWall = false;
+    private void saveMap() {
+        JFileChooser chooser = mapChooser();
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path file = chooser.getSelectedFile().toPath();
+        CompactGrid saved = grid;
+        statsLabel.setText("Saving " + file.getFileName() + "...");
+        // Queued behind the running job, so a generator is stopped rather than saved midway.
+        tasks.submitUncancellable(() -> {
+            try {
+                LandmarkTable landmarks = LandmarkTable.cached(saved);
+                if (file.toString().endsWith(".map")) {
+                    MovingAiMap.write(file, saved);
+                } else if (landmarks != null) {
+                    // Landmarks an ALT search already built are saved, so reopening the file skips the build.
+                    GridFile.write(file, saved, Map.of(LandmarkTable.SECTION, landmarks.toSection()));
+                } else {
+                    GridFile.write(file, saved);
                 }
+                SwingUtilities.invokeLater(() -> statsLabel.setText("Saved " + file.getFileName()));
+            } catch (IOException | RuntimeException ex) {
+                SwingUtilities.invokeLater(() -> showFileError("Save", file, ex));
             }
+        });
+    }
+
+    private void showFileError(String title, Path file, Throwable ex) {
+        statsLabel.setText(" ");
+        JOptionPane.showMessageDialog(this, "Could not " + title.toLowerCase() + " " + file.getFileName() + ": "
+                + ex.getMessage(), title, JOptionPane.ERROR_MESSAGE);
+    }
+
+    /**
+     * Swaps {@code loaded} in for the current grid. Called while the worker
+     * waits for it, so nothing is running on the old grid.
+     */
+    private void setGrid(CompactGrid loaded) {
+        // A job queued on the old grid meanwhile must not run on the new one,
+        // and its unapplied frames no longer mean anything.
+        tasks.cancel();
+        frames.clear();
+        dirty.clear();
+        grid.removeChangeListener(gridRepainter);
+        grid = loaded;
+        grid.addChangeListener(gridRepainter);
+        rows = loaded.rows();
+        cols = loaded.cols();
+        searchContext.close();
+        searchContext = new SearchContext(grid.size());
+        visited.clear();
+        path.clear();
+        startCell = -1;
+        endCell = -1;
+        wallLevels = null;
+        visitedLevels = null;
+        levelsBehind = null;
+        // Keep big maps on screen, switching to the overview for maps wider than the screen.
+        int longest = Math.max(rows, cols);
+        cellSize = Math.max(1, Math.min(cellSize, FIT_PIXELS / longest));
+        lod = 0;
+        while (((longest - 1) >> lod) + 1 > FIT_PIXELS) {
+            lod++;
         }
+        if (lod > 0) buildLevels();
+        gridPanel.revalidate();
+        revalidate();
+        Window window = SwingUtilities.getWindowAncestor(this);
+        if (window != null) window.pack();
+        markAllDirty();
     }
 
-    private void addBorders() {
-        for (int i = 0; i < rows; i++) {
-            if (!grid[i][0].isStart && !grid[i][0].isEnd) grid[i][0].isWall = true;
-            if (!grid[i][cols - 1].isStart && !grid[i][cols - 1].isEnd) grid[i][cols - 1].isWall = true;
+    /**
+     * Replaces the walls with a maze from a fresh seed, which the status line
+     * shows so the same maze can be built again headlessly. When animating,
+     * walls appear one at a time with a pause after each; otherwise the whole
+     * maze lands at once.
+     */
+    private void generateMaze(MazeGenerator.Style style, int pauseMillis) {
+        long seed = ThreadLocalRandom.current().nextLong();
+        boolean animate = animateCheck.isSelected();
+        statsLabel.setText(String.format("%s maze, seed %d", style, seed));
+        runTask(() -> {
+            if (animate) {
+                grid.clearWalls();
+                MazeGenerator.generate(style, rows, cols, seed, (row, col) -> {
+                    setWall(row, col);
+                    pause(pauseMillis);
+                });
+            } else {
+                MazeGenerator.generate(grid, style, seed);
+                if (startCell >= 0) grid.setWall(startCell, false);
+                if (endCell >= 0) grid.setWall(endCell, false);
+            }
+        });
+    }
+
+    /**
+     * Slows a generator or an animated search down to watching speed, and
+     * stops it if a newer job has taken over the worker.
+     */
+    private void pause(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            // Interrupted by the worker's next job.
+            throw new CancellationException();
         }
-        for (int j = 0; j < cols; j++) {
-            if (!grid[0][j].isStart && !grid[0][j].isEnd) grid[0][j].isWall = true;
-            if (!grid[rows - 1][j].isStart && !grid[rows - 1][j].isEnd) grid[rows - 1][j].isWall = true;
+    }
+
+    private void setWall(int row, int col) {
+        int cell = grid.index(row, col);
+        if (cell != startCell && cell != endCell) {
+            grid.setWall(cell, true);
         }
     }
 
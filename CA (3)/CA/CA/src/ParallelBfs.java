@@ -0,0 +1,343 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Breadth-first search that expands one whole level at a time, across
+ * cores, for flood-filling big open maps. The frontier, the visited set and
+ * the open cells are bitsets with every row padded to whole words, so a word
+ * of the next frontier is a few shifts and masks of the words around it in
+ * the current one, and no two rows share a word. Each level is split into
+ * strips of rows on a fork/join pool, each strip writing only its own rows,
+ * so levels need no locks: only a join between them.
+ *
+ * <p>For every row the range of words holding frontier cells is tracked, so
+ * a level costs the words near its frontier rather than the whole grid.
+ * Levels too small to be worth splitting run on the calling thread.
+ *
+ * <p>Distances are exactly those of {@link Algorithms#bfs}. A path is
+ * rebuilt by stepping from the end to any neighbor one step closer, trying
+ * directions in {@link CompactGrid#UP} order. So it is just as short as the
+ * queue-based search's, but where several shortest paths tie it may take
+ * a different one.
+ */
+public class ParallelBfs {
+    // A level whose frontier spans fewer words than this runs on the calling thread.
+    private static final int PARALLEL_WORDS = 1 << 11;
+    // Smallest strip of rows handed to one task.
+    private static final int MIN_STRIP_ROWS = 8;
+
+    private final CompactGrid grid;
+    private final ForkJoinPool pool;
+    private final int rows;
+    private final int cols;
+    private final int stride;
+    private final long[] open;
+    private final long[] visited;
+    // Frontier bitsets, the current one and the one being built, swapped every level.
+    private final long[][] frontier = new long[2][];
+    // Per row and frontier, the first and last word holding frontier cells; first > last if none.
+    private final int[][] firstWord = new int[2][];
+    private final int[][] lastWord = new int[2][];
+    private final Reached reached;
+    // Level the end cell was reached at, or -1.
+    private int endDistance = -1;
+
+    /** Receives each reached cell once, with its distance from the start; called from pool threads. */
+    private interface Reached {
+        void reached(int cell, int distance);
+    }
+
+    /** A listener that may be told how many cells a level expanded and enqueued instead of which. */
+    interface LevelCounter {
+        /** Returns true if totals will do, because nothing behind the listener looks at single cells. */
+        boolean countsOnly();
+
+        void expanded(int cells);
+
+        void enqueued(int cells);
+    }
+
+    private ParallelBfs(CompactGrid grid, ForkJoinPool pool, Reached reached) {
+        this.grid = grid;
+        this.pool = pool;
+        this.rows = grid.rows();
+        this.cols = grid.cols();
+        this.stride = (cols + 63) >>> 6;
+        this.reached = reached;
+        int words = rows * stride;
+        open = openCells(grid, stride);
+        visited = new long[words];
+        for (int i = 0; i < 2; i++) {
+            frontier[i] = new long[words];
+            firstWord[i] = new int[rows];
+            lastWord[i] = new int[rows];
+            Arrays.fill(firstWord[i], Integer.MAX_VALUE);
+            Arrays.fill(lastWord[i], -1);
+        }
+    }
+
+    /** Returns the number of steps from {@code start} to every cell, or -1 for cells it cannot reach. */
+    public static int[] distances(CompactGrid grid, int start) {
+        return distances(grid, start, ForkJoinPool.commonPool());
+    }
+
+    public static int[] distances(CompactGrid grid, int start, ForkJoinPool pool) {
+        int[] distance = new int[grid.size()];
+        Arrays.fill(distance, -1);
+        if (grid.isWall(start)) return distance;
+        distance[start] = 0;
+        new ParallelBfs(grid, pool, (cell, d) -> distance[cell] = d).run(start, -1, SearchListener.NONE);
+        return distance;
+    }
+
+    /** Returns the number of steps from {@code start} to {@code end}, or -1 if it cannot reach it. */
+    static int distance(CompactGrid grid, int start, int end) {
+        if (grid.isWall(start) || grid.isWall(end)) return -1;
+        if (start == end) return 0;
+        ParallelBfs bfs = new ParallelBfs(grid, ForkJoinPool.commonPool(), (cell, d) -> { });
+        bfs.run(start, end, SearchListener.NONE);
+        return bfs.endDistance;
+    }
+
+    /**
+     * Searches from {@code startCell} until the level holding {@code endCell}
+     * and leaves a shortest path in {@code context}. Returns the number of
+     * cells expanded: every cell closer than the end, plus the end. Other
+     * listeners than {@link SearchListener#NONE} and counting-only
+     * {@link LevelCounter}s have every level replayed to them on the calling
+     * thread, which is sequential work.
+     */
+    public static int search(CompactGrid grid, int startCell, int endCell, SearchContext context,
+                             SearchListener listener) {
+        context.begin();
+        context.markSeen(startCell);
+        if (startCell == endCell) return 1;
+        // Sets up the score array here, before pool threads write into it.
+        context.setG(startCell, 0);
+        ParallelBfs bfs = new ParallelBfs(grid, ForkJoinPool.commonPool(), (cell, d) -> {
+            context.markSeen(cell);
+            context.setG(cell, d);
+        });
+        int nodesExplored = bfs.run(startCell, endCell, listener);
+        if (!context.isSeen(endCell)) return nodesExplored;
+
+        int[] path = new int[context.g(endCell) + 1];
+        int cell = endCell;
+        for (int i = path.length - 1; ; i--) {
+            path[i] = cell;
+            if (i == 0) break;
+            for (int dir = 0; dir < 4; dir++) {
+                int neighbor = grid.neighbor(cell, dir);
+                if (neighbor >= 0 && context.isSeen(neighbor) && context.g(neighbor) == i - 1) {
+                    cell = neighbor;
+                    break;
+                }
+            }
+        }
+        context.setPath(grid, path);
+        Algorithms.reconstructPath(grid, context, endCell, listener);
+        return nodesExplored;
+    }
+
+    /** Expands level after level until none is left or one reaches {@code endCell}; returns cells expanded. */
+    private int run(int start, int endCell, SearchListener listener) {
+        int row = start / cols;
+        int word = row * stride + ((start % cols) >>> 6);
+        long bit = 1L << (start % cols);
+        frontier[0][word] = bit;
+        visited[word] = bit;
+        firstWord[0][row] = lastWord[0][row] = (start % cols) >>> 6;
+
+        int current = 0;
+        int minRow = row, maxRow = row;
+        // Rows the frontier two levels back covered, whose stale words the next level clears.
+        int staleMin = row, staleMax = row;
+        int frontierWords = 1;
+        int frontierCells = 1;
+        int nodesExplored = 0;
+        LevelCounter counter = listener instanceof LevelCounter levels && levels.countsOnly() ? levels : null;
+        boolean replay = listener != SearchListener.NONE && counter == null;
+        for (int distance = 1; ; distance++) {
+            if (replay) replay(current, minRow, maxRow, listener, true);
+            if (counter != null) counter.expanded(frontierCells);
+            nodesExplored += frontierCells;
+
+            int from = Math.max(0, Math.min(minRow - 1, staleMin));
+            int to = Math.min(rows - 1, Math.max(maxRow + 1, staleMax));
+            Strip level = new Strip(current, distance, from, to + 1, frontierWords >= PARALLEL_WORDS
+                    ? Math.max(MIN_STRIP_ROWS, (to + 1 - from) / (4 * pool.getParallelism())) : Integer.MAX_VALUE);
+            if (frontierWords >= PARALLEL_WORDS) {
+                pool.invoke(level);
+            } else {
+                level.compute();
+            }
+            if (level.cells == 0) return nodesExplored;
+
+            staleMin = minRow;
+            staleMax = maxRow;
+            minRow = level.minRow;
+            maxRow = level.maxRow;
+            frontierWords = level.words;
+            frontierCells = level.cells;
+            current ^= 1;
+            if (replay) replay(current, minRow, maxRow, listener, false);
+            if (counter != null) counter.enqueued(frontierCells);
+            if (endCell >= 0 && isVisited(endCell)) {
+                endDistance = distance;
+                return nodesExplored + 1;
+            }
+        }
+    }
+
+    private boolean isVisited(int cell) {
+        int row = cell / cols;
+        int col = cell % cols;
+        return (visited[row * stride + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    /** Reports every cell of a frontier to the listener, as expanded or else as enqueued. */
+    private void replay(int current, int minRow, int maxRow, SearchListener listener, boolean expanded) {
+        long[] bits = frontier[current];
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int j = firstWord[current][row], last = lastWord[current][row]; j <= last; j++) {
+                for (long word = bits[row * stride + j]; word != 0; word &= word - 1) {
+                    int cell = row * cols + (j << 6) + Long.numberOfTrailingZeros(word);
+                    if (expanded) {
+                        listener.nodeExpanded(cell);
+                    } else {
+                        listener.nodeEnqueued(cell);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the rows from {@code from} to {@code to}, exclusive, of the next
+     * frontier from the current one, splitting into halves while wider than
+     * {@code grain} rows. Afterwards holds how many cells it reached, the
+     * span of rows they are in and how many words those rows' ranges cover.
+     */
+    @SuppressWarnings("serial")
+    private final class Strip extends RecursiveAction {
+        private final int current;
+        private final int distance;
+        private final int from;
+        private final int to;
+        private final int grain;
+        int cells;
+        int words;
+        int minRow = Integer.MAX_VALUE;
+        int maxRow = -1;
+
+        Strip(int current, int distance, int from, int to, int grain) {
+            this.current = current;
+            this.distance = distance;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > grain) {
+                int mid = (from + to) >>> 1;
+                Strip top = new Strip(current, distance, from, mid, grain);
+                Strip bottom = new Strip(current, distance, mid, to, grain);
+                invokeAll(top, bottom);
+                cells = top.cells + bottom.cells;
+                words = top.words + bottom.words;
+                minRow = Math.min(top.minRow, bottom.minRow);
+                maxRow = Math.max(top.maxRow, bottom.maxRow);
+                return;
+            }
+            for (int row = from; row < to; row++) {
+                expandRow(row);
+            }
+        }
+
+        private void expandRow(int row) {
+            long[] cur = frontier[current];
+            long[] next = frontier[current ^ 1];
+            int[] curFirst = firstWord[current];
+            int[] curLast = lastWord[current];
+            int[] nextFirst = firstWord[current ^ 1];
+            int[] nextLast = lastWord[current ^ 1];
+            int base = row * stride;
+
+            // The next frontier's buffer still holds the level before this one.
+            for (int j = nextFirst[row], last = nextLast[row]; j <= last; j++) {
+                next[base + j] = 0;
+            }
+            nextFirst[row] = Integer.MAX_VALUE;
+            nextLast[row] = -1;
+
+            // Cells are reached from the same word of the rows above and below, or
+            // from this row, spilling into the next word only from an edge bit.
+            int first = curFirst[row];
+            int last = curLast[row];
+            if (first <= last) {
+                if (first > 0 && (cur[base + first] & 1L) != 0) first--;
+                if (last < stride - 1 && cur[base + last] < 0) last++;
+            }
+            if (row > 0) {
+                first = Math.min(first, curFirst[row - 1]);
+                last = Math.max(last, curLast[row - 1]);
+            }
+            if (row < rows - 1) {
+                first = Math.min(first, curFirst[row + 1]);
+                last = Math.max(last, curLast[row + 1]);
+            }
+            if (first > last) return;
+
+            for (int j = first; j <= last; j++) {
+                int i = base + j;
+                long here = cur[i];
+                long reach = here << 1 | here >>> 1;
+                if (j > 0) reach |= cur[i - 1] >>> 63;
+                if (j < stride - 1) reach |= cur[i + 1] << 63;
+                if (row > 0) reach |= cur[i - stride];
+                if (row < rows - 1) reach |= cur[i + stride];
+                long fresh = reach & open[i] & ~visited[i];
+                if (fresh == 0) continue;
+
+                next[i] = fresh;
+                visited[i] |= fresh;
+                if (j < nextFirst[row]) nextFirst[row] = j;
+                nextLast[row] = j;
+                cells += Long.bitCount(fresh);
+                int cellBase = row * cols + (j << 6);
+                for (long bits = fresh; bits != 0; bits &= bits - 1) {
+                    reached.reached(cellBase + Long.numberOfTrailingZeros(bits), distance);
+                }
+            }
+            if (nextLast[row] >= 0) {
+                words += nextLast[row] - nextFirst[row] + 1;
+                minRow = Math.min(minRow, row);
+                maxRow = Math.max(maxRow, row);
+            }
+        }
+    }
+
+    /** Open cells as a bitset with each row padded to {@code stride} words. */
+    static long[] openCells(CompactGrid grid, int stride) {
+        int rows = grid.rows();
+        int cols = grid.cols();
+        long[] open = new long[rows * stride];
+        int lastWord = CompactGrid.wordCount(rows, cols) - 1;
+        for (int row = 0; row < rows; row++) {
+            long start = (long) row * cols;
+            for (int j = 0; j < stride; j++) {
+                long bit = start + ((long) j << 6);
+                int word = (int) (bit >>> 6);
+                int shift = (int) (bit & 63);
+                long walls = grid.word(word) >>> shift;
+                if (shift != 0 && word < lastWord) walls |= grid.word(word + 1) << (64 - shift);
+                int width = Math.min(64, cols - (j << 6));
+                open[row * stride + j] = ~walls & (-1L >>> (64 - width));
+            }
+        }
+        return open;
+    }
+}
\ No newline at end of file
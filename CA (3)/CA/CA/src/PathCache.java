@@ -0,0 +1,126 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Least-recently-used cache of {@link PathResult}s for one grid. Entries are
+ * keyed by start, end, {@link Algorithm} (which also fixes the heuristic) and
+ * the {@link CompactGrid#version()} the path was found on. Any wall change
+ * bumps the version, so a stale path can never match a lookup; old entries
+ * are not flushed but simply age out as new ones push them past the budget.
+ *
+ * <p>The budget counts cells held in cached paths, plus a fixed overhead per
+ * entry, so memory stays bounded whether paths are short or long. Cached
+ * results are handed out shared, so callers must not modify their paths.
+ * All methods are thread-safe.
+ */
+public class PathCache {
+    // Rough per-entry cost of the key, map entry and result objects, in cells.
+    private static final int ENTRY_OVERHEAD = 16;
+
+    private final long maxCells;
+    private final LinkedHashMap<Key, PathResult> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long cells;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /** Creates a cache holding at most about {@code maxCells} path cells. */
+    public PathCache(long maxCells) {
+        if (maxCells <= 0) {
+            throw new IllegalArgumentException("Cache budget must be positive: " + maxCells);
+        }
+        this.maxCells = maxCells;
+    }
+
+    /** Returns the cached result for this query on grid version {@code version}, or null. */
+    public synchronized PathResult get(PathQuery query, int version) {
+        PathResult result = entries.get(new Key(query, version));
+        if (result != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return result;
+    }
+
+    public synchronized void put(PathQuery query, int version, PathResult result) {
+        long weight = weight(result);
+        if (weight > maxCells) return;
+        PathResult previous = entries.put(new Key(query, version), result);
+        if (previous != null) cells -= weight(previous);
+        cells += weight;
+
+        Iterator<PathResult> eldest = entries.values().iterator();
+        while (cells > maxCells) {
+            cells -= weight(eldest.next());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        cells = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Cells currently charged against the budget, overhead included. */
+    public synchronized long cells() {
+        return cells;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("PathCache[%d entries, %d/%d cells, %d hits, %d misses, %d evictions]",
+                entries.size(), cells, maxCells, hits, misses, evictions);
+    }
+
+    private static long weight(PathResult result) {
+        return result.path.length + ENTRY_OVERHEAD;
+    }
+
+    private static final class Key {
+        private final int start;
+        private final int end;
+        private final Algorithm algorithm;
+        private final int version;
+
+        Key(PathQuery query, int version) {
+            this.start = query.start;
+            this.end = query.end;
+            this.algorithm = query.algorithm;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return start == other.start && end == other.end
+                    && algorithm == other.algorithm && version == other.version;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = start;
+            hash = 31 * hash + end;
+            hash = 31 * hash + algorithm.ordinal();
+            return 31 * hash + version;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a {@link PathServer} from many connections at once and reports
+ * queries per second and latency. Each connection sends a window of queries,
+ * reads their answers, and sends the next, between random open cells of the
+ * same grid spec the server was started with.
+ *
+ * <pre>
+ * java PathLoadGenerator 256x256 7878 10 64 16 ASTAR_MANHATTAN
+ * </pre>
+ */
+public class PathLoadGenerator {
+    private final CompactGrid grid;
+    private final int[] openCells;
+    private final int port;
+    private final int pipeline;
+    private final String algorithm;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong answered = new AtomicLong();
+    private final AtomicLong found = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private PathLoadGenerator(CompactGrid grid, int port, int pipeline, String algorithm) {
+        this.grid = grid;
+        this.port = port;
+        this.pipeline = pipeline;
+        this.algorithm = algorithm;
+        int count = 0;
+        int[] cells = new int[grid.size()];
+        for (int cell = 0; cell < grid.size(); cell++) {
+            if (!grid.isWall(cell)) cells[count++] = cell;
+        }
+        if (count == 0) throw new IllegalArgumentException("Grid has no open cells");
+        openCells = Arrays.copyOf(cells, count);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: PathLoadGenerator <map file | ROWSxCOLS[:STYLE]> [port] [seconds] "
+                    + "[connections] [pipeline] [algorithm]");
+            System.exit(2);
+        }
+        CompactGrid grid = PathServer.loadGrid(args[0]);
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : PathServer.DEFAULT_PORT;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int connections = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+        int pipeline = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+        String algorithm = args.length > 5 ? args[5] : Algorithm.ASTAR_MANHATTAN.name();
+
+        PathLoadGenerator generator = new PathLoadGenerator(grid, port, pipeline, algorithm);
+        generator.checkGrid();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            long seed = i;
+            Thread thread = new Thread(() -> generator.drive(seed, deadline), "load-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        long begin = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("%d queries in %.1f s over %d connections, %d in flight each: %.0f queries/s%n",
+                generator.answered.get(), elapsed, connections, pipeline, generator.answered.get() / elapsed);
+        System.out.printf("%d found, %d errors; latency %s%n", generator.found.get(), generator.errors.get(),
+                generator.latency);
+        if (generator.errors.get() > 0) System.exit(1);
+    }
+
+    /** Fails unless the server holds a grid of the same size as ours. */
+    private void checkGrid() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = reader(socket);
+             Writer out = writer(socket)) {
+            out.write("{\"op\":\"info\"}\n");
+            out.flush();
+            String line = in.readLine();
+            if (line == null) throw new IOException("Server closed the connection");
+            Map<String, Object> info = PathServer.parseObject(line);
+            if (!Long.valueOf(grid.rows()).equals(info.get("rows"))
+                    || !Long.valueOf(grid.cols()).equals(info.get("cols"))) {
+                throw new IOException("Server holds a different grid: " + line);
+            }
+        }
+    }
+
+    private void drive(long seed, long deadline) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] sent = new long[pipeline];
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = reader(socket);
+             Writer out = writer(socket)) {
+            socket.setTcpNoDelay(true);
+            while (System.nanoTime() < deadline) {
+                for (int i = 0; i < pipeline; i++) {
+                    int start = openCells[random.nextInt(openCells.length)];
+                    int end = openCells[random.nextInt(openCells.length)];
+                    out.write("{\"id\":" + i + ",\"start\":" + start + ",\"end\":" + end
+                            + ",\"algorithm\":\"" + algorithm + "\"}\n");
+                    sent[i] = System.nanoTime();
+                }
+                out.flush();
+                for (int i = 0; i < pipeline; i++) {
+                    String line = in.readLine();
+                    if (line == null) throw new IOException("Server closed the connection");
+                    latency.record(System.nanoTime() - sent[i]);
+                    answered.incrementAndGet();
+                    if (line.contains("\"error\"")) {
+                        if (errors.getAndIncrement() == 0) System.err.println("Server answered: " + line);
+                    } else if (line.contains("\"found\":true")) {
+                        found.incrementAndGet();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            errors.incrementAndGet();
+            System.err.println(Thread.currentThread().getName() + ": " + e.getMessage());
+        }
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static Writer writer(Socket socket) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+/** One start/goal pair to answer, with the search to answer it with. */
+public class PathQuery {
+    public final int start;
+    public final int end;
+    public final Algorithm algorithm;
+
+    public PathQuery(int start, int end, Algorithm algorithm) {
+        this.start = start;
+        this.end = end;
+        this.algorithm = algorithm;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+/**
+ * The answer to a {@link PathQuery}: the path as cell indices from start to
+ * end, both inclusive, and how many nodes the search expanded to find it.
+ * An empty path means the end was unreachable.
+ */
+public class PathResult {
+    public final int[] path;
+    public final int nodesExplored;
+    /** What the search that found this answer cost, or null if it was not measured. */
+    public final SearchStats stats;
+
+    public PathResult(int[] path, int nodesExplored) {
+        this(path, nodesExplored, null);
+    }
+
+    public PathResult(int[] path, SearchStats stats) {
+        this(path, stats.expansions, stats);
+    }
+
+    private PathResult(int[] path, int nodesExplored, SearchStats stats) {
+        this.path = path;
+        this.nodesExplored = nodesExplored;
+        this.stats = stats;
+    }
+
+    public boolean found() {
+        return path.length > 0;
+    }
+
+    /** Number of steps on the path, or -1 if no path was found. */
+    public int length() {
+        return path.length - 1;
+    }
+}
\ No newline at end of file
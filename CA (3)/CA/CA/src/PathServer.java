@@ -0,0 +1,517 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Answers path queries on one grid over a local TCP socket, for services
+ * that need paths without the visualizer. The protocol is JSON lines: one
+ * object per line each way.
+ *
+ * <pre>
+ * {"id":1,"start":[2,3],"end":[40,17],"algorithm":"JPS"}
+ * {"id":2,"start":83,"end":1657}
+ * {"id":3,"op":"info"}
+ * </pre>
+ *
+ * Cells are indices or {@code [row, col]} pairs, and the algorithm is the
+ * name of an {@link Algorithm} constant, A* with Manhattan distance if left
+ * out. Each answer carries its request's id. Paths come back as cell indices,
+ * with the stats of the search that found them; an answer from the cache
+ * repeats those of the original search.
+ *
+ * <pre>
+ * {"id":1,"found":true,"length":52,"cost":52,"expanded":311,"micros":41,"path":[...]}
+ * {"id":3,"rows":512,"cols":512,"version":0}
+ * {"id":4,"error":"Unknown algorithm: JSP"}
+ * </pre>
+ *
+ * <p>Every connection has a thread that reads whatever requests the client
+ * has sent so far, queues them, and writes their answers in order, so a
+ * client may pipeline. One batcher thread takes everything queued from all
+ * connections to a {@link BatchPathFinder} as a single batch, and the next
+ * batch gathers while that one runs, so the busier the server the more
+ * searches share a batch. The grid must not change while it is served.
+ *
+ * <p>A connection stops reading once {@link #MAX_IN_FLIGHT} of its requests
+ * are unanswered, and every connection waits while the shared queue is full,
+ * so a client sending faster than the server answers is held back by TCP
+ * instead of filling memory. Closing the server answers whatever is still
+ * queued with an error.
+ */
+public class PathServer implements Closeable {
+    public static final int DEFAULT_PORT = 7878;
+    // Most queries handed to the finder at once.
+    private static final int MAX_BATCH = 1024;
+    // Most queries waiting for the batcher, from all connections together.
+    private static final int MAX_WAITING = 4 * MAX_BATCH;
+    /** Most requests one connection may have read and not yet answered. */
+    public static final int MAX_IN_FLIGHT = 256;
+    private static final String CLOSING = "Server is closing";
+    // Path cells kept by the answer cache.
+    private static final long CACHE_CELLS = 1L << 22;
+
+    private final CompactGrid grid;
+    private final BatchPathFinder finder;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final ServerSocket server;
+    private final BlockingQueue<Request> waiting = new LinkedBlockingQueue<>(MAX_WAITING);
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final ExecutorService connections;
+    private final Thread acceptor;
+    private final Thread batcher;
+    private volatile boolean closed;
+
+    /** Binds to {@code port} on the loopback address; 0 picks a free port. Call {@link #start} to serve. */
+    public PathServer(CompactGrid grid, int port) throws IOException {
+        this.grid = grid;
+        this.finder = new BatchPathFinder(grid, ForkJoinPool.commonPool(), new PathCache(CACHE_CELLS), metrics);
+        this.server = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        AtomicInteger connectionCount = new AtomicInteger();
+        // Release 17 has no virtual threads, so each connection gets a platform thread.
+        this.connections = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "path-connection-" + connectionCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.acceptor = new Thread(this::accept, "path-acceptor");
+        this.batcher = new Thread(this::batch, "path-batcher");
+        // The acceptor keeps the JVM up until the server is closed.
+        batcher.setDaemon(true);
+    }
+
+    public void start() {
+        acceptor.start();
+        batcher.start();
+    }
+
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    /** Search times per algorithm of every query answered so far. */
+    public MetricsRegistry metrics() {
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            server.close();
+        } catch (IOException ignored) {
+            // Closing anyway.
+        }
+        for (Socket client : clients) {
+            try {
+                client.close();
+            } catch (IOException ignored) {
+                // Closing anyway.
+            }
+        }
+        batcher.interrupt();
+        // Connection threads may be waiting on these; a batch already running still completes its own.
+        List<Request> left = new ArrayList<>();
+        waiting.drainTo(left);
+        for (Request request : left) {
+            request.answer.complete(error(request.id, CLOSING));
+        }
+        connections.shutdownNow();
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket client = server.accept();
+                client.setTcpNoDelay(true);
+                clients.add(client);
+                connections.execute(() -> serve(client));
+            } catch (IOException e) {
+                if (!closed) System.err.println("Accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        try (client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(),
+                     StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(),
+                     StandardCharsets.UTF_8))) {
+            List<Request> pending = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) pending.add(request(line));
+                // Everything the client has already sent is queued before any answer is awaited, so it shares batches.
+                if (in.ready() && pending.size() < MAX_IN_FLIGHT) continue;
+                for (Request request : pending) {
+                    out.write(request.answer.join());
+                    out.write('\n');
+                }
+                out.flush();
+                pending.clear();
+            }
+        } catch (SocketException e) {
+            // The client hung up, or the server is closing.
+        } catch (IOException e) {
+            if (!closed) System.err.println("Connection failed: " + e.getMessage());
+        } finally {
+            clients.remove(client);
+        }
+    }
+
+    /** Takes every query waiting, up to {@link #MAX_BATCH}, as one batch, and answers it. */
+    private void batch() {
+        List<Request> batch = new ArrayList<>(MAX_BATCH);
+        List<PathQuery> queries = new ArrayList<>(MAX_BATCH);
+        while (!closed) {
+            try {
+                batch.add(waiting.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            waiting.drainTo(batch, MAX_BATCH - 1);
+            for (Request request : batch) {
+                queries.add(request.query);
+            }
+            try {
+                List<PathResult> results = finder.findPaths(queries);
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).answer.complete(answer(batch.get(i).id, results.get(i)));
+                }
+            } catch (RuntimeException e) {
+                for (Request request : batch) {
+                    request.answer.complete(error(request.id, e.toString()));
+                }
+            }
+            batch.clear();
+            queries.clear();
+        }
+    }
+
+    /** Parses one request line; a path query is queued for the batcher, anything else is answered at once. */
+    private Request request(String line) {
+        Object id = null;
+        try {
+            Map<String, Object> fields = parseObject(line);
+            id = fields.get("id");
+            Object op = fields.getOrDefault("op", "path");
+            if ("info".equals(op)) {
+                return new Request(id, null, String.format("{%s\"rows\":%d,\"cols\":%d,\"version\":%d}",
+                        idField(id), grid.rows(), grid.cols(), grid.version()));
+            }
+            if (!"path".equals(op)) throw new IllegalArgumentException("Unknown op: " + op);
+            int start = cell(fields.get("start"), "start");
+            int end = cell(fields.get("end"), "end");
+            Algorithm algorithm = algorithm(fields.get("algorithm"));
+            Request request = new Request(id, new PathQuery(start, end, algorithm), null);
+            enqueue(request);
+            return request;
+        } catch (IllegalArgumentException e) {
+            return new Request(id, null, error(id, e.getMessage()));
+        }
+    }
+
+    /** Queues a path query for the batcher, waiting while the queue is full. */
+    private void enqueue(Request request) {
+        try {
+            waiting.put(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.answer.complete(error(request.id, CLOSING));
+            return;
+        }
+        // close() sets the flag before it drains the queue, so a request queued after the drain is caught here.
+        if (closed) request.answer.complete(error(request.id, CLOSING));
+    }
+
+    private int cell(Object value, String name) {
+        long cell;
+        if (value instanceof Long index) {
+            cell = index;
+        } else if (value instanceof int[] position && position.length == 2) {
+            if (position[0] < 0 || position[0] >= grid.rows() || position[1] < 0 || position[1] >= grid.cols()) {
+                throw new IllegalArgumentException("Cell outside the grid: " + name);
+            }
+            cell = grid.index(position[0], position[1]);
+        } else {
+            throw new IllegalArgumentException("Expected a cell index or [row, col]: " + name);
+        }
+        if (cell < 0 || cell >= grid.size()) throw new IllegalArgumentException("Cell outside the grid: " + name);
+        return (int) cell;
+    }
+
+    private static Algorithm algorithm(Object value) {
+        if (value == null) return Algorithm.ASTAR_MANHATTAN;
+        try {
+            return Algorithm.valueOf(String.valueOf(value).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown algorithm: " + value);
+        }
+    }
+
+    private static String answer(Object id, PathResult result) {
+        SearchStats stats = result.stats;
+        StringBuilder line = new StringBuilder(64 + result.path.length * 8);
+        line.append('{').append(idField(id))
+                .append("\"found\":").append(result.found())
+                .append(",\"length\":").append(result.length())
+                .append(",\"cost\":").append(stats.pathCost)
+                .append(",\"expanded\":").append(result.nodesExplored)
+                .append(",\"micros\":").append(stats.computeNanos / 1000)
+                .append(",\"path\":[");
+        for (int i = 0; i < result.path.length; i++) {
+            if (i > 0) line.append(',');
+            line.append(result.path[i]);
+        }
+        return line.append("]}").toString();
+    }
+
+    private static String error(Object id, String message) {
+        return "{" + idField(id) + "\"error\":" + quote(String.valueOf(message)) + "}";
+    }
+
+    private static String idField(Object id) {
+        if (id == null) return "";
+        return "\"id\":" + (id instanceof String text ? quote(text) : String.valueOf(id)) + ",";
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < ' ') {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Parses one flat JSON object. Values may be strings, integers (as
+     * {@code Long}), booleans, null, or arrays of integers (as {@code int[]}).
+     *
+     * @throws IllegalArgumentException if the text is not such an object
+     */
+    static Map<String, Object> parseObject(String text) {
+        return new JsonReader(text).object();
+    }
+
+    /**
+     * Loads a {@code .map} or {@code .grid} file the way the visualizer opens
+     * one, or, for {@code ROWSxCOLS} optionally followed by
+     * {@code :}{@link MazeGenerator.Style}, generates a maze with seed 1, so
+     * that a server and a load generator given the same spec hold the same
+     * grid.
+     */
+    static CompactGrid loadGrid(String spec) throws IOException {
+        Path file = Path.of(spec);
+        if (Files.exists(file)) {
+            if (spec.endsWith(".map")) return MovingAiMap.read(file);
+            GridFile gridFile = GridFile.open(file);
+            LandmarkTable.load(gridFile);
+            return gridFile.grid();
+        }
+        String[] parts = spec.split(":", 2);
+        String[] size = parts[0].split("x");
+        if (size.length != 2) throw new IllegalArgumentException("Expected a map file or ROWSxCOLS[:STYLE]: " + spec);
+        CompactGrid grid = new CompactGrid(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+        MazeGenerator.Style style = parts.length > 1
+                ? MazeGenerator.Style.valueOf(parts[1].toUpperCase(Locale.ROOT)) : MazeGenerator.Style.RANDOM;
+        MazeGenerator.generate(grid, style, 1);
+        return grid;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: PathServer <map file | ROWSxCOLS[:STYLE]> [port]");
+            System.exit(2);
+        }
+        CompactGrid grid = loadGrid(args[0]);
+        PathServer server = new PathServer(grid, args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            System.out.println(server.metrics().report());
+        }));
+        server.start();
+        System.out.printf("Serving a %dx%d grid on %s:%d%n", grid.rows(), grid.cols(),
+                InetAddress.getLoopbackAddress().getHostAddress(), server.port());
+    }
+
+    /** A request with its answer, which the batcher completes for path queries. */
+    private static final class Request {
+        final Object id;
+        final PathQuery query;
+        final CompletableFuture<String> answer;
+
+        Request(Object id, PathQuery query, String answer) {
+            this.id = id;
+            this.query = query;
+            this.answer = answer != null ? CompletableFuture.completedFuture(answer) : new CompletableFuture<>();
+        }
+    }
+
+    private static final class JsonReader {
+        private final String text;
+        private int pos;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        Map<String, Object> object() {
+            Map<String, Object> fields = new HashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                pos++;
+            } else {
+                while (true) {
+                    String key = string();
+                    expect(':');
+                    fields.put(key, value());
+                    char c = next();
+                    if (c == '}') break;
+                    if (c != ',') throw error("Expected , or }");
+                }
+            }
+            skipSpace();
+            if (pos != text.length()) throw error("Unexpected text after the object");
+            return fields;
+        }
+
+        private Object value() {
+            char c = peek();
+            if (c == '"') return string();
+            if (c == '[') return array();
+            for (String word : new String[] {"true", "false", "null"}) {
+                if (text.startsWith(word, pos)) {
+                    pos += word.length();
+                    return word.equals("null") ? null : Boolean.valueOf(word);
+                }
+            }
+            return number();
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (pos >= text.length()) throw error("Unterminated string");
+                char c = text.charAt(pos++);
+                if (c == '"') return value.toString();
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) throw error("Unterminated string");
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n' -> value.append('\n');
+                    case 't' -> value.append('\t');
+                    case 'r' -> value.append('\r');
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) throw error("Bad \\u escape");
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Bad \\u escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> value.append(escaped);
+                }
+            }
+        }
+
+        private long number() {
+            skipSpace();
+            int start = pos;
+            if (pos < text.length() && text.charAt(pos) == '-') pos++;
+            while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                pos++;
+            }
+            if (pos == start || pos - start > 18 || text.charAt(pos - 1) == '-') throw error("Expected an integer");
+            return Long.parseLong(text.substring(start, pos));
+        }
+
+        private int[] array() {
+            expect('[');
+            List<Long> values = new ArrayList<>();
+            if (peek() == ']') {
+                pos++;
+            } else {
+                while (true) {
+                    values.add(number());
+                    char c = next();
+                    if (c == ']') break;
+                    if (c != ',') throw error("Expected , or ]");
+                }
+            }
+            int[] array = new int[values.size()];
+            for (int i = 0; i < array.length; i++) {
+                long value = values.get(i);
+                if (value != (int) value) throw error("Number too large");
+                array[i] = (int) value;
+            }
+            return array;
+        }
+
+        private void expect(char c) {
+            if (peek() != c) throw error("Expected " + c);
+            pos++;
+        }
+
+        /** Skips whitespace and returns the next character without taking it. */
+        private char peek() {
+            skipSpace();
+            if (pos >= text.length()) throw error("Unexpected end of line");
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at column " + (pos + 1));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Radix heap for keys that never go down. A key lands in the bucket numbered
+ * by the highest bit where it differs from the last key polled, so bucket 0
+ * holds keys equal to it and each bucket above covers a range twice as wide.
+ * When bucket 0 runs dry, the lowest non-empty bucket is spread over the
+ * buckets below it around its own minimum. A key can only move down, at most
+ * 32 times, so every operation is O(1) amortized over the 32-bit key range,
+ * with no limit on how far ahead keys run, unlike a {@link BucketQueue}.
+ */
+public class RadixHeap implements MonotoneQueue {
+    private static final int BUCKETS = 33;
+
+    private final int[][] cells = new int[BUCKETS][];
+    private final int[][] keys = new int[BUCKETS][];
+    private final int[] sizes = new int[BUCKETS];
+    private int last;
+    private int size;
+
+    @Override
+    public void add(int cell, int key) {
+        if (key < last) {
+            throw new IllegalArgumentException("Key " + key + " is below the last key polled, " + last);
+        }
+        push(bucket(key), cell, key);
+        size++;
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) throw new NoSuchElementException();
+        if (sizes[0] == 0) {
+            int b = 1;
+            while (sizes[b] == 0) {
+                b++;
+            }
+            int[] bucketKeys = keys[b];
+            int[] bucketCells = cells[b];
+            int count = sizes[b];
+            int min = bucketKeys[0];
+            for (int i = 1; i < count; i++) {
+                min = Math.min(min, bucketKeys[i]);
+            }
+            last = min;
+            sizes[b] = 0;
+            for (int i = 0; i < count; i++) {
+                push(bucket(bucketKeys[i]), bucketCells[i], bucketKeys[i]);
+            }
+        }
+        size--;
+        return cells[0][--sizes[0]];
+    }
+
+    private int bucket(int key) {
+        return key == last ? 0 : 32 - Integer.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void push(int b, int cell, int key) {
+        if (cells[b] == null) {
+            cells[b] = new int[16];
+            keys[b] = new int[16];
+        } else if (sizes[b] == cells[b].length) {
+            cells[b] = Arrays.copyOf(cells[b], sizes[b] * 2);
+            keys[b] = Arrays.copyOf(keys[b], sizes[b] * 2);
+        }
+        cells[b][sizes[b]] = cell;
+        keys[b][sizes[b]++] = key;
+    }
+
+    @Override
+    public int lastKey() {
+        return last;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(sizes, 0);
+        last = 0;
+        size = 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,220 @@
+import java.util.Arrays;
+
+/**
+ * Reusable scratch state for one search at a time on a {@link CompactGrid}.
+ * Scores, parents and the open set live in flat arrays indexed by cell, so a
+ * context can be kept around and reused instead of allocating per query.
+ *
+ * <p>Nothing is cleared between searches. Every cell carries the epoch of the
+ * last search that touched it, and a stamp older than the current epoch reads
+ * as unvisited with an infinite score, so starting a search is O(1) and a query
+ * costs only the cells it actually explores.
+ */
+public class SearchContext {
+    private static final byte NO_PARENT = 0;
+
+    private final int size;
+    private final int[] stamp;
+    private final byte[] parent;
+    private int[] gScore;
+    private IndexedMinHeap openSet;
+    private BucketQueue bucketQueue;
+    private RadixHeap radixHeap;
+    private int[] queue;
+    private int[] links;
+    private final int[][] areas = new int[3][];
+    private SearchContext reverse;
+    private FrontierMarks frontierMarks;
+    private IncrementalPlanner planner;
+    // Even numbers only: a cell stamped epoch is seen, epoch + 1 is closed.
+    private int epoch;
+
+    public SearchContext(int size) {
+        this.size = size;
+        this.stamp = new int[size];
+        this.parent = new byte[size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Starts a new search, invalidating everything left over from the previous one. */
+    void begin() {
+        epoch += 2;
+        if (epoch < 0) {
+            // Wrapped around after ~1 billion searches; stale stamps could now look current.
+            Arrays.fill(stamp, 0);
+            epoch = 2;
+        }
+        if (openSet != null) openSet.clear();
+    }
+
+    /** Returns the g-score of {@code cell}, or {@link Integer#MAX_VALUE} if this search has not reached it. */
+    int g(int cell) {
+        return isSeen(cell) ? gScore[cell] : Integer.MAX_VALUE;
+    }
+
+    void setG(int cell, int g) {
+        if (gScore == null) {
+            gScore = new int[size];
+        }
+        gScore[cell] = g;
+    }
+
+    IndexedMinHeap openSet() {
+        if (openSet == null) {
+            openSet = new IndexedMinHeap(size);
+        }
+        return openSet;
+    }
+
+    BucketQueue bucketQueue() {
+        if (bucketQueue == null) {
+            bucketQueue = new BucketQueue();
+        }
+        return bucketQueue;
+    }
+
+    RadixHeap radixHeap() {
+        if (radixHeap == null) {
+            radixHeap = new RadixHeap();
+        }
+        return radixHeap;
+    }
+
+    /** Scratch array big enough to hold every cell once, used as a queue or stack. */
+    int[] queue() {
+        if (queue == null) {
+            queue = new int[size];
+        }
+        return queue;
+    }
+
+    /**
+     * Scratch array with one entry per cell, for searches whose parent links
+     * span more than one step, like the abstract graph of {@link HierarchicalSearch}.
+     */
+    int[] links() {
+        if (links == null) {
+            links = new int[size];
+        }
+        return links;
+    }
+
+    /**
+     * Scratch array number {@code which}, of three, holding exactly
+     * {@code length} entries, for searches that work on one part of the grid
+     * at a time, like the clusters of {@link HierarchicalSearch}.
+     */
+    int[] area(int which, int length) {
+        if (areas[which] == null || areas[which].length != length) {
+            areas[which] = new int[length];
+        }
+        return areas[which];
+    }
+
+    /** Second context of the same size, used for the backward half of a bidirectional search. */
+    SearchContext reverse() {
+        if (reverse == null) {
+            reverse = new SearchContext(size);
+        }
+        return reverse;
+    }
+
+    /** Visited marks shared by two frontiers searching on different threads. */
+    FrontierMarks frontierMarks() {
+        if (frontierMarks == null) {
+            frontierMarks = new FrontierMarks(size);
+        }
+        return frontierMarks;
+    }
+
+    /**
+     * Returns this context's incremental planner for {@code goal} on {@code grid},
+     * keeping the previous one if it matches so its search survives between runs.
+     */
+    IncrementalPlanner planner(CompactGrid grid, int start, int goal) {
+        if (planner == null || planner.grid() != grid || planner.goal() != goal) {
+            if (planner != null) planner.close();
+            planner = new IncrementalPlanner(grid, start, goal);
+        }
+        planner.moveStart(start);
+        return planner;
+    }
+
+    /**
+     * Drops this context's incremental planner, if any, which otherwise keeps
+     * listening to its grid's changes. The context stays usable.
+     */
+    public void close() {
+        if (planner != null) {
+            planner.close();
+            planner = null;
+        }
+    }
+
+    boolean isSeen(int cell) {
+        return stamp[cell] - epoch >= 0;
+    }
+
+    /** Marks {@code cell} as reached by this search, with no parent yet. */
+    void markSeen(int cell) {
+        stamp[cell] = epoch;
+        parent[cell] = NO_PARENT;
+    }
+
+    boolean isClosed(int cell) {
+        return stamp[cell] == epoch + 1;
+    }
+
+    void markClosed(int cell) {
+        stamp[cell] = epoch + 1;
+    }
+
+    /** Records that {@code cell} was reached by stepping in {@code dir} from its parent. */
+    void setParent(int cell, int dir) {
+        parent[cell] = (byte) (CompactGrid.opposite(dir) + 1);
+    }
+
+    /** Returns the direction from {@code cell} back to its parent, or -1 if it has none. */
+    public int parentDirection(int cell) {
+        return isSeen(cell) ? parent[cell] - 1 : -1;
+    }
+
+    /**
+     * Stores a path produced outside this context, given as adjacent cells from
+     * start to end, so that {@link #path} returns it like any other result.
+     */
+    void setPath(CompactGrid grid, int[] path) {
+        begin();
+        for (int i = 0; i < path.length; i++) {
+            markSeen(path[i]);
+            if (i > 0) setParent(path[i], grid.direction(path[i - 1], path[i]));
+        }
+    }
+
+    /** Returns true if the last search reached {@code cell}. */
+    public boolean reached(int cell) {
+        return isSeen(cell);
+    }
+
+    /**
+     * Returns the path found by the last search from its start to {@code end},
+     * both inclusive, or an empty array if {@code end} was not reached.
+     */
+    public int[] path(CompactGrid grid, int end) {
+        if (!reached(end)) return new int[0];
+        int length = 1;
+        for (int cell = end; parentDirection(cell) >= 0; cell = grid.step(cell, parentDirection(cell))) {
+            length++;
+        }
+        int[] path = new int[length];
+        int cell = end;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = cell;
+            if (i > 0) cell = grid.step(cell, parentDirection(cell));
+        }
+        return path;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one search, committed by {@link Algorithm#measure}
+ * with the same numbers as its {@link SearchStats}. The event's own duration
+ * includes the caller's listener; {@code computeTime} does not. Costs a flag
+ * check per search while no recording is running.
+ */
+@Name("pathfinding.Search")
+@Label("Path Search")
+@Category("Pathfinding")
+@Description("One pathfinding search and what it cost")
+class SearchEvent extends jdk.jfr.Event {
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Expansions")
+    int expansions;
+
+    @Label("Pushes")
+    int pushes;
+
+    @Label("Decrease-keys")
+    int decreaseKeys;
+
+    @Label("Max Open Set Size")
+    int maxOpenSize;
+
+    @Label("Path Length")
+    int pathLength;
+
+    @Label("Path Cost")
+    int pathCost;
+
+    @Label("Compute Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long computeTime;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+
+    void fill(SearchStats stats) {
+        algorithm = stats.algorithm.name();
+        expansions = stats.expansions;
+        pushes = stats.pushes;
+        decreaseKeys = stats.decreaseKeys;
+        maxOpenSize = stats.maxOpenSize;
+        pathLength = stats.pathLength;
+        pathCost = stats.pathCost;
+        computeTime = stats.computeNanos;
+        allocated = stats.allocatedBytes;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+/**
+ * Receives the individual steps of a search in {@link Algorithms}.
+ * The searches never sleep or repaint on their own; a view that wants to
+ * animate them subscribes with a listener and does the pacing itself.
+ * Cells are reported by their {@link CompactGrid} index.
+ */
+public interface SearchListener {
+    /** Listener used by headless callers; every event is ignored. */
+    SearchListener NONE = new SearchListener() {};
+
+    /** Called when a cell is taken off the open set and expanded. */
+    default void nodeExpanded(int cell) {}
+
+    /** Called when a cell is added to the open set. */
+    default void nodeEnqueued(int cell) {}
+
+    /** Called when a cell already in the open set is given a better key. */
+    default void keyDecreased(int cell) {}
+
+    /** Called for every cell between start and end on the final path, walking back from the end. */
+    default void pathCell(int cell) {}
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+/**
+ * Where {@link Algorithm#measure} sends the stats of every search. Plug in
+ * {@link MetricsRegistry} to aggregate them in process, or an adapter to
+ * whatever metrics system the application already reports to.
+ * Implementations are called from every searching thread at once.
+ */
+public interface SearchMetrics {
+    /** Sink used when nobody is collecting; every search is dropped. */
+    SearchMetrics NONE = stats -> { };
+
+    void record(SearchStats stats);
+}
\ No newline at end of file
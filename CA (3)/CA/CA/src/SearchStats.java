@@ -0,0 +1,192 @@
+import java.lang.management.ManagementFactory;
+
+/**
+ * What one search cost: how much of the open set it touched, what it found
+ * and how long it computed. Filled in by {@link Algorithm#measure}, which
+ * counts the search's listener events, so every algorithm reports the same
+ * way without carrying counters of its own.
+ *
+ * <p>Compute time and allocation leave out the time spent in the caller's
+ * listener, so an animated search that sleeps on every step measures the same
+ * as a headless one. Allocation is counted on the calling thread only, and
+ * is -1 where the JVM cannot count it per thread.
+ *
+ * <p>Start and end are first looked up in the grid's {@link ComponentIndex}.
+ * When no path can join them, or either is a wall, no search runs at all and
+ * the stats report nothing expanded and no path. Building or repairing the
+ * index is not counted as compute time.
+ */
+public class SearchStats {
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    public final Algorithm algorithm;
+    /** Nodes taken off the open set, as returned by {@link Algorithm#search}. */
+    public final int expansions;
+    /** Cells added to the open set, counting the start. */
+    public final int pushes;
+    public final int decreaseKeys;
+    /**
+     * Most cells waiting in the open set at once, from the enqueue and expand
+     * events. D* Lite also drops cells without expanding them and keeps
+     * cells queued by earlier plans, so for it this is only an estimate.
+     */
+    public final int maxOpenSize;
+    /** Steps on the path, or -1 if none was found. */
+    public final int pathLength;
+    /** Terrain cost of the path, not counting the start cell, or -1 if none was found. */
+    public final int pathCost;
+    public final long computeNanos;
+    public final long allocatedBytes;
+
+    SearchStats(Algorithm algorithm, int expansions, int pushes, int decreaseKeys, int maxOpenSize,
+                int pathLength, int pathCost, long computeNanos, long allocatedBytes) {
+        this.algorithm = algorithm;
+        this.expansions = expansions;
+        this.pushes = pushes;
+        this.decreaseKeys = decreaseKeys;
+        this.maxOpenSize = maxOpenSize;
+        this.pathLength = pathLength;
+        this.pathCost = pathCost;
+        this.computeNanos = computeNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public boolean found() {
+        return pathLength >= 0;
+    }
+
+    static SearchStats measure(Algorithm algorithm, CompactGrid grid, int start, int end, SearchContext context,
+                               SearchListener listener, SearchMetrics metrics) {
+        ComponentIndex components = ComponentIndex.of(grid);
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        Recorder recorder = new Recorder(listener);
+        long allocatedBefore = allocatedBytes();
+        long started = System.nanoTime();
+        int expansions = 0;
+        // A pair in different components is turned away before any search floods its way to that answer.
+        if (components.connected(start, end)) {
+            expansions = algorithm.search(grid, start, end, context, recorder);
+        } else {
+            context.begin();
+            recorder.pushes = 0;
+            recorder.maxOpenSize = 0;
+        }
+        long computeNanos = System.nanoTime() - started - recorder.listenerNanos;
+        long allocated = allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore;
+        event.end();
+
+        int pathLength = -1;
+        int pathCost = -1;
+        if (context.reached(end)) {
+            pathLength = 0;
+            pathCost = 0;
+            for (int cell = end, dir; (dir = context.parentDirection(cell)) >= 0; cell = grid.step(cell, dir)) {
+                pathLength++;
+                pathCost += grid.cost(cell);
+            }
+        }
+
+        SearchStats stats = new SearchStats(algorithm, expansions, recorder.pushes, recorder.decreaseKeys,
+                recorder.maxOpenSize, pathLength, pathCost, computeNanos, allocated);
+        if (event.shouldCommit()) {
+            event.fill(stats);
+            event.commit();
+        }
+        metrics.record(stats);
+        return stats;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d expanded, %d pushed, %d decreased, open set max %d, path %d cost %d, %.3f ms, %d bytes",
+                algorithm, expansions, pushes, decreaseKeys, maxOpenSize, pathLength, pathCost,
+                computeNanos / 1e6, allocatedBytes);
+    }
+
+    /**
+     * Counts the events of a search on their way to the caller's listener and
+     * times the caller's handling of them, which is not the search's own work.
+     * A headless caller's {@link SearchListener#NONE} is not timed at all.
+     */
+    private static final class Recorder implements SearchListener, ParallelBfs.LevelCounter {
+        private final SearchListener listener;
+        private final boolean timed;
+        // The start cell is queued without an event.
+        int pushes = 1;
+        int decreaseKeys;
+        int openSize = 1;
+        int maxOpenSize = 1;
+        long listenerNanos;
+
+        Recorder(SearchListener listener) {
+            this.listener = listener;
+            this.timed = listener != SearchListener.NONE;
+        }
+
+        @Override
+        public void nodeExpanded(int cell) {
+            openSize--;
+            if (!timed) return;
+            long started = System.nanoTime();
+            listener.nodeExpanded(cell);
+            listenerNanos += System.nanoTime() - started;
+        }
+
+        @Override
+        public void nodeEnqueued(int cell) {
+            pushes++;
+            if (++openSize > maxOpenSize) maxOpenSize = openSize;
+            if (!timed) return;
+            long started = System.nanoTime();
+            listener.nodeEnqueued(cell);
+            listenerNanos += System.nanoTime() - started;
+        }
+
+        @Override
+        public void keyDecreased(int cell) {
+            decreaseKeys++;
+            if (!timed) return;
+            long started = System.nanoTime();
+            listener.keyDecreased(cell);
+            listenerNanos += System.nanoTime() - started;
+        }
+
+        @Override
+        public boolean countsOnly() {
+            return !timed;
+        }
+
+        @Override
+        public void expanded(int cells) {
+            openSize -= cells;
+        }
+
+        @Override
+        public void enqueued(int cells) {
+            pushes += cells;
+            openSize += cells;
+            if (openSize > maxOpenSize) maxOpenSize = openSize;
+        }
+
+        @Override
+        public void pathCell(int cell) {
+            if (!timed) return;
+            long started = System.nanoTime();
+            listener.pathCell(cell);
+            listenerNanos += System.nanoTime() - started;
+        }
+    }
+}
\ No newline at end of file
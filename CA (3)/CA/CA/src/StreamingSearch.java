@@ -0,0 +1,260 @@
+import java.util.Arrays;
+
+/**
+ * A* across a {@link TiledGrid}. The per-cell arrays of {@link SearchContext}
+ * would be as big as the world, so search state lives in a hash table holding
+ * only the cells the search has actually reached. Together with the tiled
+ * grid's bounded chunk cache, memory depends on how much of the world the
+ * search explores, never on how big it is, and {@code maxExpanded} caps even
+ * that.
+ *
+ * <p>This is the only search over a {@link TiledGrid}. The searches in
+ * {@link Algorithms} keep per-cell arrays as big as their grid and index them
+ * by {@code int} cell, so they stay on {@link CompactGrid}. Streamed worlds
+ * get Manhattan A* with unit step costs and nothing else.
+ */
+public class StreamingSearch {
+
+    /** The outcome of one search: the path as cell indices from start to end, both inclusive. */
+    public static class Result {
+        public final long[] path;
+        public final int nodesExplored;
+        /** True if the search stopped at its expansion limit rather than finishing. */
+        public final boolean budgetExceeded;
+
+        Result(long[] path, int nodesExplored, boolean budgetExceeded) {
+            this.path = path;
+            this.nodesExplored = nodesExplored;
+            this.budgetExceeded = budgetExceeded;
+        }
+
+        public boolean found() {
+            return path.length > 0;
+        }
+    }
+
+    public static Result aStar(TiledGrid grid, long startCell, long endCell) {
+        return aStar(grid, startCell, endCell, Integer.MAX_VALUE);
+    }
+
+    /** Runs A* with Manhattan distance, giving up after {@code maxExpanded} expansions. */
+    public static Result aStar(TiledGrid grid, long startCell, long endCell, int maxExpanded) {
+        CellTable cells = new CellTable();
+        OpenList openSet = new OpenList();
+
+        int start = cells.add(startCell, 0);
+        openSet.add(start, distance(grid, startCell, endCell), 0);
+
+        int nodesExplored = 0;
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            if (cells.isClosed(current)) continue;
+
+            long cell = cells.cell(current);
+            if (cell == endCell) {
+                return new Result(cells.path(grid, current), nodesExplored, false);
+            }
+            if (nodesExplored == maxExpanded) {
+                return new Result(new long[0], nodesExplored, true);
+            }
+            nodesExplored++;
+            cells.close(current);
+
+            int tentativeGScore = cells.g(current) + 1;
+            for (int dir = 0; dir < 4; dir++) {
+                long neighbor = grid.neighbor(cell, dir);
+                if (neighbor < 0) continue;
+
+                int entry = cells.find(neighbor);
+                if (entry < 0) {
+                    entry = cells.add(neighbor, tentativeGScore);
+                } else if (cells.isClosed(entry) || tentativeGScore >= cells.g(entry)) {
+                    continue;
+                } else {
+                    cells.setG(entry, tentativeGScore);
+                }
+                cells.setParent(entry, dir);
+                // Stale heap entries for a cell that improves are skipped when polled.
+                openSet.add(entry, tentativeGScore + distance(grid, neighbor, endCell), tentativeGScore);
+            }
+        }
+
+        return new Result(new long[0], nodesExplored, false);
+    }
+
+    private static long distance(TiledGrid grid, long a, long b) {
+        return Math.abs((long) grid.row(a) - grid.row(b)) + Math.abs((long) grid.col(a) - grid.col(b));
+    }
+
+    /**
+     * Cells reached so far, numbered in the order they were reached. An
+     * open-addressing table maps a cell to its number; the per-cell data sits
+     * in parallel arrays under that number, which never changes when the
+     * table grows.
+     */
+    private static final class CellTable {
+        private static final byte CLOSED = 8;
+
+        private long[] cells = new long[1024];
+        private int[] gScore = new int[1024];
+        // Low bits: direction back to the parent plus one, 0 for none; CLOSED once expanded.
+        private byte[] flags = new byte[1024];
+        private int count;
+        private int[] slots = new int[2048];
+        private int mask = slots.length - 1;
+
+        CellTable() {
+            Arrays.fill(slots, -1);
+        }
+
+        int find(long cell) {
+            for (int i = hash(cell) & mask; ; i = (i + 1) & mask) {
+                int entry = slots[i];
+                if (entry < 0 || cells[entry] == cell) return entry;
+            }
+        }
+
+        int add(long cell, int g) {
+            if (count == cells.length) {
+                cells = Arrays.copyOf(cells, count * 2);
+                gScore = Arrays.copyOf(gScore, count * 2);
+                flags = Arrays.copyOf(flags, count * 2);
+            }
+            if (count * 2 >= slots.length) rehash();
+            int entry = count++;
+            cells[entry] = cell;
+            gScore[entry] = g;
+            insert(entry);
+            return entry;
+        }
+
+        long cell(int entry) {
+            return cells[entry];
+        }
+
+        int g(int entry) {
+            return gScore[entry];
+        }
+
+        void setG(int entry, int g) {
+            gScore[entry] = g;
+        }
+
+        boolean isClosed(int entry) {
+            return (flags[entry] & CLOSED) != 0;
+        }
+
+        void close(int entry) {
+            flags[entry] |= CLOSED;
+        }
+
+        void setParent(int entry, int dir) {
+            flags[entry] = (byte) ((flags[entry] & CLOSED) | (CompactGrid.opposite(dir) + 1));
+        }
+
+        long[] path(TiledGrid grid, int end) {
+            long[] path = new long[gScore[end] + 1];
+            int entry = end;
+            for (int i = path.length - 1; i >= 0; i--) {
+                path[i] = cells[entry];
+                if (i > 0) entry = find(step(grid, cells[entry], (flags[entry] & 7) - 1));
+            }
+            return path;
+        }
+
+        private static long step(TiledGrid grid, long cell, int dir) {
+            return switch (dir) {
+                case CompactGrid.UP -> cell - grid.cols();
+                case CompactGrid.DOWN -> cell + grid.cols();
+                case CompactGrid.LEFT -> cell - 1;
+                default -> cell + 1;
+            };
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            mask = slots.length - 1;
+            Arrays.fill(slots, -1);
+            for (int entry = 0; entry < count; entry++) {
+                insert(entry);
+            }
+        }
+
+        private void insert(int entry) {
+            int i = hash(cells[entry]) & mask;
+            while (slots[i] >= 0) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = entry;
+        }
+
+        private static int hash(long cell) {
+            long h = cell * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * Binary min-heap of table entries ordered by f-score, deeper g first on
+     * ties. Entries are never updated in place; an improved cell is pushed
+     * again and its older copy is dropped once closed.
+     */
+    private static final class OpenList {
+        private long[] keys = new long[1024];
+        private int[] ties = new int[1024];
+        private int[] entries = new int[1024];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(int entry, long key, int g) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                ties = Arrays.copyOf(ties, size * 2);
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(key, g, keys[parent], ties[parent])) break;
+                keys[i] = keys[parent];
+                ties[i] = ties[parent];
+                entries[i] = entries[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            ties[i] = g;
+            entries[i] = entry;
+        }
+
+        int poll() {
+            int top = entries[0];
+            size--;
+            long key = keys[size];
+            int tie = ties[size];
+            int entry = entries[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && before(keys[child + 1], ties[child + 1], keys[child], ties[child])) child++;
+                if (!before(keys[child], ties[child], key, tie)) break;
+                keys[i] = keys[child];
+                ties[i] = ties[child];
+                entries[i] = entries[child];
+                i = child;
+            }
+            keys[i] = key;
+            ties[i] = tie;
+            entries[i] = entry;
+            return top;
+        }
+
+        private static boolean before(long key, int g, long otherKey, int otherG) {
+            return key < otherKey || (key == otherKey && g > otherG);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,330 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * A read-only grid too big to hold in memory, streamed from disk in square
+ * chunks. Only a bounded number of chunks are cached at a time; the least
+ * recently used one is dropped, and its array reused, when another is needed.
+ * Callers see individual cells, much as with {@link CompactGrid}, and
+ * never deal with chunks. It is not a {@code CompactGrid}, though, and only
+ * {@link StreamingSearch} searches it. Cells are {@code long} indices
+ * ({@code row * cols + col}) because a world can hold more than 2^31 of them.
+ *
+ * <p>The file is a small header followed by every chunk's wall bitset, in
+ * row-major chunk order, with edge chunks padded to full size so any chunk's
+ * offset is a multiplication away:
+ *
+ * <pre>
+ *   0  int   magic "PFTW"
+ *   4  int   format version (1)
+ *   8  int   rows
+ *  12  int   cols
+ *  16  int   log2 of the chunk edge
+ *  20  int   reserved
+ *  24  chunks, each edge * edge bits as little-endian longs
+ * </pre>
+ *
+ * <p>Not thread-safe: the cache is shared state, so one search at a time.
+ * Hit, miss, eviction and load-latency counters show how well the cache
+ * fits the access pattern.
+ */
+public class TiledGrid implements Closeable {
+    private static final int MAGIC = 0x57544650; // "PFTW" read as a little-endian int
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+
+    private final FileChannel channel;
+    private final int rows;
+    private final int cols;
+    private final int chunkShift;
+    private final int chunkMask;
+    private final long chunkCols;
+    private final int chunkWords;
+    private final int maxChunks;
+    private final LinkedHashMap<Long, long[]> chunks;
+    private final ByteBuffer readBuffer;
+
+    // The last chunk touched, checked before the map since searches stay local.
+    private long lastChunk = -1;
+    private long[] lastWalls;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long loadNanos;
+    private long maxLoadNanos;
+
+    private TiledGrid(FileChannel channel, int rows, int cols, int chunkShift, int maxChunks) {
+        this.channel = channel;
+        this.rows = rows;
+        this.cols = cols;
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1 << chunkShift) - 1;
+        this.chunkCols = ((long) cols + chunkMask) >> chunkShift;
+        this.chunkWords = chunkWords(chunkShift);
+        this.maxChunks = maxChunks;
+        this.chunks = new LinkedHashMap<>(maxChunks * 2, 0.75f, true);
+        this.readBuffer = ByteBuffer.allocateDirect(chunkWords * 8).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Source of walls for {@link #write}, asked once per cell. */
+    public interface WallSource {
+        boolean isWall(int row, int col);
+    }
+
+    /**
+     * Opens a tiled grid file, caching at most {@code maxChunks} chunks, so
+     * memory use is {@code maxChunks} times the chunk size whatever the world's size.
+     */
+    public static TiledGrid open(Path file, int maxChunks) throws IOException {
+        if (maxChunks < 1) {
+            throw new IllegalArgumentException("Need room for at least one chunk: " + maxChunks);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) throw new IOException("Truncated tiled grid file: " + file);
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a tiled grid file: " + file);
+            }
+            int formatVersion = header.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported tiled grid version " + formatVersion + ": " + file);
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            int chunkShift = header.getInt();
+            if (rows <= 0 || cols <= 0 || chunkShift < 3 || chunkShift > 12) {
+                throw new IOException("Corrupt tiled grid header: " + file);
+            }
+            long chunkCount = (((long) rows + (1 << chunkShift) - 1) >> chunkShift)
+                    * (((long) cols + (1 << chunkShift) - 1) >> chunkShift);
+            if (channel.size() < HEADER_BYTES + chunkCount * chunkWords(chunkShift) * 8) {
+                throw new IOException("Truncated tiled grid file: " + file);
+            }
+            return new TiledGrid(channel, rows, cols, chunkShift, maxChunks);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Writes a world of {@code rows} x {@code cols} cells one chunk at a time, so it never has to fit in memory. */
+    public static void write(Path file, int rows, int cols, int chunkSize, WallSource walls) throws IOException {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Invalid grid size: " + rows + "x" + cols);
+        }
+        if (Integer.bitCount(chunkSize) != 1 || chunkSize < 8 || chunkSize > 4096) {
+            throw new IllegalArgumentException("Chunk size must be a power of two from 8 to 4096: " + chunkSize);
+        }
+        int chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        ByteBuffer chunk = ByteBuffer.allocateDirect(chunkWords(chunkShift) * 8).order(ByteOrder.LITTLE_ENDIAN);
+
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(rows).putInt(cols).putInt(chunkShift).putInt(0);
+            header.flip();
+            writeFully(channel, header);
+
+            long[] bits = new long[chunkWords(chunkShift)];
+            for (long top = 0; top < rows; top += chunkSize) {
+                for (long left = 0; left < cols; left += chunkSize) {
+                    Arrays.fill(bits, 0L);
+                    int height = (int) Math.min(chunkSize, rows - top);
+                    int width = (int) Math.min(chunkSize, cols - left);
+                    for (int r = 0; r < height; r++) {
+                        for (int c = 0; c < width; c++) {
+                            if (walls.isWall((int) top + r, (int) left + c)) {
+                                int bit = (r << chunkShift) | c;
+                                bits[bit >>> 6] |= 1L << bit;
+                            }
+                        }
+                    }
+                    chunk.clear();
+                    chunk.asLongBuffer().put(bits);
+                    writeFully(channel, chunk);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Writes {@code grid} as a tiled grid file. */
+    public static void write(Path file, CompactGrid grid, int chunkSize) throws IOException {
+        write(file, grid.rows(), grid.cols(), chunkSize, grid::isWall);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public long size() {
+        return (long) rows * cols;
+    }
+
+    public long index(int row, int col) {
+        return (long) row * cols + col;
+    }
+
+    public int row(long cell) {
+        return (int) (cell / cols);
+    }
+
+    public int col(long cell) {
+        return (int) (cell % cols);
+    }
+
+    public boolean isWall(long cell) {
+        return isWall(row(cell), col(cell));
+    }
+
+    public boolean isWall(int row, int col) {
+        long[] walls = chunk((row >> chunkShift) * chunkCols + (col >> chunkShift));
+        int bit = ((row & chunkMask) << chunkShift) | (col & chunkMask);
+        return (walls[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Returns the open cell next to {@code cell} in direction {@code dir}
+     * (see {@link CompactGrid#UP} and friends), or -1 if that step leaves the
+     * world or runs into a wall.
+     */
+    public long neighbor(long cell, int dir) {
+        int row = row(cell), col = col(cell);
+        switch (dir) {
+            case CompactGrid.UP -> row--;
+            case CompactGrid.DOWN -> row++;
+            case CompactGrid.LEFT -> col--;
+            default -> col++;
+        }
+        if (row < 0 || row >= rows || col < 0 || col >= cols || isWall(row, col)) return -1;
+        return index(row, col);
+    }
+
+    private long[] chunk(long id) {
+        if (id == lastChunk) {
+            hits++;
+            return lastWalls;
+        }
+        long[] walls = chunks.get(id);
+        if (walls != null) {
+            hits++;
+        } else {
+            walls = load(id);
+        }
+        lastChunk = id;
+        lastWalls = walls;
+        return walls;
+    }
+
+    private long[] load(long id) {
+        misses++;
+        long[] walls;
+        if (chunks.size() >= maxChunks) {
+            Iterator<long[]> eldest = chunks.values().iterator();
+            walls = eldest.next();
+            eldest.remove();
+            evictions++;
+        } else {
+            walls = new long[chunkWords];
+        }
+
+        long started = System.nanoTime();
+        readBuffer.clear();
+        long position = HEADER_BYTES + id * chunkWords * 8L;
+        try {
+            while (readBuffer.hasRemaining()) {
+                if (channel.read(readBuffer, position + readBuffer.position()) < 0) {
+                    throw new IOException("Chunk " + id + " runs past the end of the file");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load chunk " + id, e);
+        }
+        readBuffer.flip();
+        readBuffer.asLongBuffer().get(walls);
+        long elapsed = System.nanoTime() - started;
+        loadNanos += elapsed;
+        maxLoadNanos = Math.max(maxLoadNanos, elapsed);
+
+        chunks.put(id, walls);
+        return walls;
+    }
+
+    public int chunkSize() {
+        return 1 << chunkShift;
+    }
+
+    public int cachedChunks() {
+        return chunks.size();
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    public long evictions() {
+        return evictions;
+    }
+
+    /** Mean time to read one chunk from disk, in nanoseconds. */
+    public long meanLoadNanos() {
+        return misses == 0 ? 0 : loadNanos / misses;
+    }
+
+    public long maxLoadNanos() {
+        return maxLoadNanos;
+    }
+
+    public void resetStats() {
+        hits = misses = evictions = loadNanos = maxLoadNanos = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TiledGrid[%dx%d, %d/%d chunks, %d hits, %d misses, %d evictions, load mean %.1f us max %.1f us]",
+                rows, cols, chunks.size(), maxChunks, hits, misses, evictions,
+                meanLoadNanos() / 1e3, maxLoadNanos / 1e3);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static int chunkWords(int chunkShift) {
+        return (1 << (2 * chunkShift)) >>> 6;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
\ No newline at end of file
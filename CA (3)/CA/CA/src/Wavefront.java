@@ -0,0 +1,203 @@
+import java.util.Arrays;
+
+/**
+ * Bit-parallel reachability: floods the open cells joined to a start 64 at
+ * a time, over the same row-padded bitsets as {@link ParallelBfs}. A row
+ * takes in every open cell next to the flooded cells of the rows above and
+ * below, then spreads along its open runs with a shift-and-mask fill, and
+ * whenever a row grows its neighbors are looked at again. Unlike a search
+ * this keeps no distances and visits no cell on its own, so telling whether
+ * two cells are joined costs a few word operations per 64 cells.
+ *
+ * <p>Rows are revisited in no particular order until none grows, each time
+ * only across the words where a neighbor grew, so a winding maze costs more
+ * passes than an open map but each pass stays short.
+ */
+public final class Wavefront {
+    private final int rows;
+    private final int cols;
+    private final int stride;
+    private final long[] open;
+    private final long[] flooded;
+    // Rows waiting to be looked at again, and for each row the words to look at; lo > hi if not waiting.
+    private final int[] pending;
+    private final int[] pendingLo;
+    private final int[] pendingHi;
+    private int pendingCount;
+    // Cells newly taken in by the row being filled.
+    private final long[] seeds;
+
+    private Wavefront(CompactGrid grid) {
+        rows = grid.rows();
+        cols = grid.cols();
+        stride = (cols + 63) >>> 6;
+        open = ParallelBfs.openCells(grid, stride);
+        flooded = new long[rows * stride];
+        pending = new int[rows];
+        pendingLo = new int[rows];
+        pendingHi = new int[rows];
+        Arrays.fill(pendingLo, Integer.MAX_VALUE);
+        Arrays.fill(pendingHi, -1);
+        seeds = new long[stride];
+    }
+
+    /** Returns true if an open path joins {@code from} and {@code to}. */
+    public static boolean connected(CompactGrid grid, int from, int to) {
+        if (grid.isWall(from) || grid.isWall(to)) return false;
+        if (from == to) return true;
+        Wavefront wavefront = new Wavefront(grid);
+        wavefront.flood(from, to);
+        return wavefront.isFlooded(to);
+    }
+
+    /** Returns the number of open cells joined to {@code cell}, itself included, or 0 for a wall. */
+    public static int reachableCount(CompactGrid grid, int cell) {
+        if (grid.isWall(cell)) return 0;
+        Wavefront wavefront = new Wavefront(grid);
+        wavefront.flood(cell, -1);
+        return wavefront.floodedCount();
+    }
+
+    /**
+     * Returns the number of steps on a shortest path from {@code from} to
+     * {@code to}, or -1 if none exists. Cells that are not joined are told
+     * apart by a flood before any level-by-level search is spent on them.
+     */
+    public static int distance(CompactGrid grid, int from, int to) {
+        if (!connected(grid, from, to)) return -1;
+        return ParallelBfs.distance(grid, from, to);
+    }
+
+    /**
+     * Runs {@link ParallelBfs#search} if the end can be reached at all, and
+     * otherwise returns at once with no path, counting the cells the flood
+     * took in as expanded. Flooded cells are not reported to the listener.
+     */
+    static int search(CompactGrid grid, int startCell, int endCell, SearchContext context,
+                      SearchListener listener) {
+        if (startCell == endCell) {
+            return ParallelBfs.search(grid, startCell, endCell, context, listener);
+        }
+        Wavefront wavefront = new Wavefront(grid);
+        wavefront.flood(startCell, endCell);
+        if (wavefront.isFlooded(endCell)) {
+            return ParallelBfs.search(grid, startCell, endCell, context, listener);
+        }
+        context.begin();
+        context.markSeen(startCell);
+        return wavefront.floodedCount();
+    }
+
+    private int floodedCount() {
+        int count = 0;
+        for (long word : flooded) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private boolean isFlooded(int cell) {
+        int col = cell % cols;
+        return (flooded[cell / cols * stride + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    /** Floods from {@code start} until no row grows, or until {@code stopCell} is flooded. */
+    private void flood(int start, int stopCell) {
+        int row = start / cols;
+        int col = start % cols;
+        seeds[col >>> 6] = 1L << col;
+        fillRow(row, col >>> 6, col >>> 6);
+        while (pendingCount > 0 && !(stopCell >= 0 && isFlooded(stopCell))) {
+            row = pending[--pendingCount];
+            int lo = pendingLo[row];
+            int hi = pendingHi[row];
+            pendingLo[row] = Integer.MAX_VALUE;
+            pendingHi[row] = -1;
+            if (takeIn(row, lo, hi)) fillRow(row, lo, hi);
+        }
+    }
+
+    /**
+     * Gathers the row's unflooded open cells, in words {@code lo} to
+     * {@code hi}, that are next to flooded cells above or below; returns
+     * true if there are any.
+     */
+    private boolean takeIn(int row, int lo, int hi) {
+        int base = row * stride;
+        int above = row > 0 ? base - stride : base;
+        int below = row < rows - 1 ? base + stride : base;
+        long any = 0;
+        for (int j = lo; j <= hi; j++) {
+            long seed = (flooded[above + j] | flooded[below + j]) & open[base + j] & ~flooded[base + j];
+            seeds[j] = seed;
+            any |= seed;
+        }
+        return any != 0;
+    }
+
+    /**
+     * Spreads the row's seeds, in words {@code lo} to {@code hi}, along
+     * their open runs: first towards higher columns and then back, carrying
+     * across word edges for as long as a run goes on. Adds them to the flood
+     * and queues the words that grew for the rows above and below.
+     */
+    private void fillRow(int row, int lo, int hi) {
+        int base = row * stride;
+        long carry = 0;
+        int j = lo;
+        for (; j < stride && (j <= hi || carry != 0); j++) {
+            long filled = fillUp((j <= hi ? seeds[j] : 0) | carry, open[base + j]);
+            seeds[j] = filled;
+            carry = filled >>> 63;
+        }
+        // Seeds lie in runs not yet flooded, so every word the fill touches grew.
+        int grownHi = j - 1;
+        carry = 0;
+        for (j = grownHi; j >= 0 && (j >= lo || carry != 0); j--) {
+            long filled = fillDown((j >= lo ? seeds[j] : 0) | carry, open[base + j]);
+            flooded[base + j] |= filled;
+            carry = filled << 63;
+        }
+        int grownLo = j + 1;
+        if (row > 0) queue(row - 1, grownLo, grownHi);
+        if (row < rows - 1) queue(row + 1, grownLo, grownHi);
+    }
+
+    private void queue(int row, int lo, int hi) {
+        if (pendingLo[row] > pendingHi[row]) pending[pendingCount++] = row;
+        pendingLo[row] = Math.min(pendingLo[row], lo);
+        pendingHi[row] = Math.max(pendingHi[row], hi);
+    }
+
+    /** Every bit of {@code open} joined to a bit of {@code seeds} by a run of open bits above it. */
+    static long fillUp(long seeds, long open) {
+        long filled = seeds & open;
+        filled |= open & (filled << 1);
+        open &= open << 1;
+        filled |= open & (filled << 2);
+        open &= open << 2;
+        filled |= open & (filled << 4);
+        open &= open << 4;
+        filled |= open & (filled << 8);
+        open &= open << 8;
+        filled |= open & (filled << 16);
+        open &= open << 16;
+        return filled | open & (filled << 32);
+    }
+
+    /** Every bit of {@code open} joined to a bit of {@code seeds} by a run of open bits below it. */
+    static long fillDown(long seeds, long open) {
+        long filled = seeds & open;
+        filled |= open & (filled >>> 1);
+        open &= open >>> 1;
+        filled |= open & (filled >>> 2);
+        open &= open >>> 2;
+        filled |= open & (filled >>> 4);
+        open &= open >>> 4;
+        filled |= open & (filled >>> 8);
+        open &= open >>> 8;
+        filled |= open & (filled >>> 16);
+        open &= open >>> 16;
+        return filled | open & (filled >>> 32);
+    }
+}
\ No newline at end of file
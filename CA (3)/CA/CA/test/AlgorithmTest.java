@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class AlgorithmTest {
+    // Searches that find a path whenever there is one, but not always a shortest one.
+    private static final Set<Algorithm> NOT_SHORTEST = EnumSet.of(Algorithm.DFS, Algorithm.GREEDY_BFS,
+            Algorithm.HPA_STAR);
+    private static final MazeGenerator.Style[] STYLES = {MazeGenerator.Style.RECURSIVE_DIVISION,
+            MazeGenerator.Style.RANDOM, MazeGenerator.Style.SCATTER, MazeGenerator.Style.HORIZONTAL_WALLS};
+
+    @ParameterizedTest
+    @EnumSource(Algorithm.class)
+    void pathsMatchBfsOnMazes(Algorithm algorithm) {
+        for (MazeGenerator.Style style : STYLES) {
+            for (long seed = 1; seed <= 3; seed++) {
+                CompactGrid grid = new CompactGrid(48, 72);
+                MazeGenerator.generate(grid, style, seed);
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 6; i++) {
+                    int start = random.nextInt(grid.size());
+                    int end = random.nextInt(grid.size());
+                    grid.setWall(start, false);
+                    grid.setWall(end, false);
+                    String where = algorithm + " on " + style + " seed " + seed + " from " + start + " to " + end;
+
+                    int[] expected = path(Algorithm.BFS, grid, start, end);
+                    int[] path = path(algorithm, grid, start, end);
+                    if (expected.length == 0) {
+                        assertEquals(0, path.length, where);
+                        continue;
+                    }
+                    assertValid(grid, start, end, path, where);
+                    if (NOT_SHORTEST.contains(algorithm)) {
+                        assertTrue(path.length >= expected.length, where);
+                    } else {
+                        assertEquals(expected.length, path.length, where);
+                    }
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Algorithm.class)
+    void walledStartFindsNoPath(Algorithm algorithm) {
+        CompactGrid grid = new CompactGrid(40, 40);
+        int start = grid.index(1, 1);
+        int end = grid.index(35, 30);
+        grid.setWall(start, true);
+        SearchContext context = new SearchContext(grid.size());
+
+        assertEquals(0, algorithm.search(grid, start, end, context, SearchListener.NONE));
+        assertArrayEquals(new int[0], context.path(grid, end));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Algorithm.class)
+    void walledEndFindsNoPath(Algorithm algorithm) {
+        CompactGrid grid = new CompactGrid(40, 40);
+        int start = grid.index(1, 1);
+        int end = grid.index(35, 30);
+        grid.setWall(end, true);
+        SearchContext context = new SearchContext(grid.size());
+
+        assertEquals(0, algorithm.search(grid, start, end, context, SearchListener.NONE));
+        assertArrayEquals(new int[0], context.path(grid, end));
+    }
+
+    private static int[] path(Algorithm algorithm, CompactGrid grid, int start, int end) {
+        SearchContext context = new SearchContext(grid.size());
+        algorithm.search(grid, start, end, context, SearchListener.NONE);
+        return context.path(grid, end);
+    }
+
+    /** Fails unless {@code path} steps between open neighbors from {@code start} to {@code end}. */
+    private static void assertValid(CompactGrid grid, int start, int end, int[] path, String where) {
+        assertEquals(start, path[0], where);
+        assertEquals(end, path[path.length - 1], where);
+        for (int i = 0; i < path.length; i++) {
+            assertFalse(grid.isWall(path[i]), where);
+            if (i > 0) {
+                int rows = Math.abs(grid.row(path[i]) - grid.row(path[i - 1]));
+                int cols = Math.abs(grid.col(path[i]) - grid.col(path[i - 1]));
+                assertEquals(1, rows + cols, where);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ChangeLogTest {
+
+    @Test
+    void newLogAsksForARebuild() {
+        ChangeLog log = new ChangeLog(4);
+        log.changed(3);
+
+        assertTrue(log.rebuild());
+        assertEquals(0, log.size());
+        assertFalse(log.isCurrent(-1));
+    }
+
+    @Test
+    void listsChangesUntilTheLimit() {
+        ChangeLog log = new ChangeLog(2);
+        log.caughtUp(7);
+        assertTrue(log.isCurrent(7));
+
+        log.changed(5);
+        log.changed(9);
+        assertArrayEquals(new int[] {5, 9}, log.toArray());
+        assertFalse(log.rebuild());
+
+        log.changed(11);
+        assertTrue(log.rebuild());
+        assertEquals(0, log.size());
+    }
+
+    @Test
+    void catchingUpEmptiesTheLogAtThatVersion() {
+        ChangeLog log = new ChangeLog(8);
+        log.caughtUp(1);
+        log.changed(4);
+
+        log.caughtUp(2);
+
+        assertTrue(log.isEmpty());
+        assertEquals(2, log.version());
+        assertFalse(log.isCurrent(3));
+    }
+}
@@ -0,0 +1,48 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ComponentIndexTest {
+
+    @Test
+    void eachGridKeepsItsOwnIndex() {
+        CompactGrid first = new CompactGrid(10, 10);
+        CompactGrid second = new CompactGrid(10, 10);
+
+        assertSame(ComponentIndex.of(first), ComponentIndex.of(first));
+        assertNotSame(ComponentIndex.of(first), ComponentIndex.of(second));
+    }
+
+    @Test
+    void followsWallsThatSplitAndRejoin() {
+        CompactGrid grid = new CompactGrid(10, 10);
+        int left = grid.index(5, 0);
+        int right = grid.index(5, 9);
+        assertTrue(ComponentIndex.of(grid).connected(left, right));
+
+        for (int row = 0; row < 10; row++) {
+            grid.setWall(row, 4, true);
+        }
+        assertFalse(ComponentIndex.of(grid).connected(left, right));
+
+        grid.setWall(7, 4, false);
+        assertTrue(ComponentIndex.of(grid).connected(left, right));
+    }
+
+    @Test
+    void unjoinedQueriesAreAnsweredWithoutSearching() {
+        CompactGrid grid = new CompactGrid(10, 10);
+        for (int row = 0; row < 10; row++) {
+            grid.setWall(row, 4, true);
+        }
+        SearchStats stats = Algorithm.BFS.measure(grid, grid.index(0, 0), grid.index(9, 9),
+                new SearchContext(grid.size()), SearchListener.NONE, new MetricsRegistry());
+
+        assertFalse(stats.found());
+        assertEquals(0, stats.expansions);
+    }
+}
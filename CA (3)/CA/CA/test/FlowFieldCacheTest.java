@@ -0,0 +1,65 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class FlowFieldCacheTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3})
+    void repairedFieldsMatchAFreshBuild(long seed) {
+        CompactGrid grid = new CompactGrid(64, 64);
+        MazeGenerator.generate(grid, MazeGenerator.Style.SCATTER, seed);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int cell = 0; cell < grid.size(); cell++) {
+            grid.setCost(cell, 1 + random.nextInt(CompactGrid.MAX_COST));
+        }
+        int[] goals = {grid.index(5, 5), grid.index(40, 50)};
+        for (int goal : goals) {
+            grid.setWall(goal, false);
+        }
+        FlowFieldCache cache = new FlowFieldCache(grid, goals.length);
+        cache.fields(goals);
+
+        for (int round = 0; round < 40; round++) {
+            // Few enough changes per round that the fields are repaired rather than rebuilt.
+            for (int i = 0; i < 8; i++) {
+                int cell = random.nextInt(grid.size());
+                if (cell == goals[0] || cell == goals[1]) continue;
+                if (random.nextBoolean()) {
+                    grid.setWall(cell, !grid.isWall(cell));
+                } else {
+                    grid.setCost(cell, 1 + random.nextInt(CompactGrid.MAX_COST));
+                }
+            }
+            FlowField[] fields = cache.fields(goals);
+            for (FlowField field : fields) {
+                FlowField fresh = new FlowField(grid, field.goal());
+                fresh.update(grid);
+                for (int cell = 0; cell < grid.size(); cell++) {
+                    assertEquals(fresh.distance(cell), field.distance(cell),
+                            "round " + round + ", goal " + field.goal() + ", cell " + cell);
+                }
+            }
+        }
+        assertEquals(goals.length, cache.builds());
+        cache.close();
+    }
+
+    @Test
+    void rejectsMoreGoalsThanItHolds() {
+        CompactGrid grid = new CompactGrid(10, 10);
+        FlowFieldCache cache = new FlowFieldCache(grid, 2);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.fields(1, 2, 3));
+        FlowField[] fields = cache.fields(1, 2, 1);
+        assertSame(fields[0], fields[2]);
+        assertSame(fields[1], cache.field(2));
+        cache.close();
+    }
+}
@@ -0,0 +1,60 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class HierarchicalSearchTest {
+
+    @Test
+    void eachGridKeepsItsOwnGraph() {
+        CompactGrid first = new CompactGrid(40, 40);
+        CompactGrid second = new CompactGrid(40, 40);
+
+        assertSame(HierarchicalSearch.graph(first), HierarchicalSearch.graph(first));
+        assertNotSame(HierarchicalSearch.graph(first), HierarchicalSearch.graph(second));
+    }
+
+    @Test
+    void followsEditsPastTheChangeLimit() {
+        CompactGrid grid = new CompactGrid(64, 64);
+        MazeGenerator.generate(grid, MazeGenerator.Style.SCATTER, 5);
+        int start = grid.index(0, 0);
+        int end = grid.index(63, 63);
+        grid.setWall(start, false);
+        grid.setWall(end, false);
+        SplittableRandom random = new SplittableRandom(8);
+        HierarchicalSearch.search(grid, start, end);
+
+        // More toggles than the graph lists, so the next search rebuilds every cluster.
+        for (int i = 0; i < grid.size() / 4; i++) {
+            int cell = random.nextInt(grid.size());
+            if (cell != start && cell != end) grid.setWall(cell, !grid.isWall(cell));
+        }
+        assertArrayEquals(path(copy(grid), start, end), path(grid, start, end));
+
+        // Back under the limit, only the touched clusters are rebuilt.
+        for (int i = 0; i < 20; i++) {
+            int cell = random.nextInt(grid.size());
+            if (cell != start && cell != end) grid.setWall(cell, !grid.isWall(cell));
+            assertArrayEquals(path(copy(grid), start, end), path(grid, start, end));
+        }
+    }
+
+    private static int[] path(CompactGrid grid, int start, int end) {
+        SearchContext context = new SearchContext(grid.size());
+        HierarchicalSearch.search(grid, start, end, context, SearchListener.NONE);
+        return context.path(grid, end);
+    }
+
+    /** A grid with the same walls, whose cluster graph is built from scratch. */
+    private static CompactGrid copy(CompactGrid grid) {
+        CompactGrid copy = new CompactGrid(grid.rows(), grid.cols());
+        for (int cell = 0; cell < grid.size(); cell++) {
+            if (grid.isWall(cell)) copy.setWall(cell, true);
+        }
+        return copy;
+    }
+}
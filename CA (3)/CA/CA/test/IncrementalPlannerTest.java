@@ -0,0 +1,74 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class IncrementalPlannerTest {
+
+    @Test
+    void replansMatchBfsAndExpandLessThanAStar() {
+        CompactGrid grid = new CompactGrid(96, 96);
+        MazeGenerator.generate(grid, MazeGenerator.Style.SCATTER, 4);
+        int start = grid.index(2, 3);
+        int goal = grid.index(90, 93);
+        grid.setWall(start, false);
+        grid.setWall(goal, false);
+        IncrementalPlanner planner = new IncrementalPlanner(grid, start, goal);
+        planner.plan(SearchListener.NONE);
+        SearchContext context = new SearchContext(grid.size());
+
+        SplittableRandom random = new SplittableRandom(12);
+        long replanned = 0, searched = 0;
+        for (int i = 0; i < 100; i++) {
+            toggle(grid, random, start, goal);
+            replanned += planner.plan(SearchListener.NONE);
+            assertEquals(bfsCost(grid, start, goal), planner.cost());
+            searched += Algorithms.aStar(grid, start, goal, false, context, SearchListener.NONE);
+        }
+        // Single edits should cost a small fraction of a fresh search.
+        assertTrue(replanned * 10 < searched, replanned + " cells replanning, " + searched + " searching");
+        planner.close();
+    }
+
+    @Test
+    void replansCorrectlyPastTheChangeLimit() {
+        CompactGrid grid = new CompactGrid(40, 40);
+        MazeGenerator.generate(grid, MazeGenerator.Style.SCATTER, 9);
+        int start = grid.index(0, 0);
+        int goal = grid.index(39, 39);
+        grid.setWall(start, false);
+        grid.setWall(goal, false);
+        IncrementalPlanner planner = new IncrementalPlanner(grid, start, goal);
+        planner.plan(SearchListener.NONE);
+
+        SplittableRandom random = new SplittableRandom(3);
+        // More toggles than the planner lists, so the next plan starts over.
+        for (int i = 0; i < grid.size() / 4; i++) {
+            toggle(grid, random, start, goal);
+        }
+        planner.plan(SearchListener.NONE);
+        assertEquals(bfsCost(grid, start, goal), planner.cost());
+
+        // Back under the limit, the plan is repaired again.
+        for (int i = 0; i < 20; i++) {
+            toggle(grid, random, start, goal);
+            planner.plan(SearchListener.NONE);
+            assertEquals(bfsCost(grid, start, goal), planner.cost());
+        }
+        planner.close();
+    }
+
+    private static void toggle(CompactGrid grid, SplittableRandom random, int start, int goal) {
+        int cell = random.nextInt(grid.size());
+        if (cell != start && cell != goal) grid.setWall(cell, !grid.isWall(cell));
+    }
+
+    /** Steps on the shortest path, or -1 if there is none. */
+    static int bfsCost(CompactGrid grid, int start, int goal) {
+        SearchContext context = new SearchContext(grid.size());
+        Algorithms.bfs(grid, start, goal, context, SearchListener.NONE);
+        return context.path(grid, goal).length - 1;
+    }
+}
@@ -0,0 +1,52 @@
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class JumpPointSearchTest {
+
+    @Test
+    void eachGridKeepsItsOwnTable() {
+        CompactGrid first = new CompactGrid(10, 10);
+        CompactGrid second = new CompactGrid(10, 10);
+
+        assertSame(JumpPointSearch.table(first), JumpPointSearch.table(first));
+        assertNotSame(JumpPointSearch.table(first), JumpPointSearch.table(second));
+    }
+
+    @Test
+    void tableIsBuiltAgainAfterAWallChange() {
+        CompactGrid grid = new CompactGrid(10, 10);
+        JumpTable before = JumpPointSearch.table(grid);
+
+        grid.setWall(grid.index(4, 4), true);
+
+        JumpTable after = JumpPointSearch.table(grid);
+        assertNotSame(before, after);
+        assertTrue(after.isCurrent(grid));
+    }
+
+    @Test
+    void concurrentCallersShareOneBuild() throws Exception {
+        CompactGrid grid = new CompactGrid(500, 500);
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<JumpTable>> tables = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tables.add(threads.submit(() -> JumpPointSearch.table(grid)));
+            }
+            for (Future<JumpTable> table : tables) {
+                assertSame(tables.get(0).get(), table.get());
+            }
+        } finally {
+            threads.shutdown();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LandmarkTableTest {
+
+    @Test
+    void tableIsKeptUntilTheWallsChange() {
+        CompactGrid grid = new CompactGrid(30, 30);
+        LandmarkTable table = LandmarkTable.of(grid);
+        assertSame(table, LandmarkTable.of(grid));
+
+        grid.setWall(10, 10, true);
+        LandmarkTable rebuilt = LandmarkTable.of(grid);
+        assertNotSame(table, rebuilt);
+        assertTrue(rebuilt.isCurrent(grid));
+    }
+
+    @Test
+    void concurrentCallersShareOneBuild() throws Exception {
+        CompactGrid grid = new CompactGrid(300, 300);
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<LandmarkTable>> tables = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tables.add(threads.submit(() -> LandmarkTable.of(grid)));
+            }
+            for (Future<LandmarkTable> table : tables) {
+                assertSame(tables.get(0).get(), table.get());
+            }
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    @Test
+    void landmarksSitOnOpenCellsNearTheRim() {
+        CompactGrid grid = new CompactGrid(20, 20);
+        for (int col = 0; col < 20; col++) {
+            grid.setWall(0, col, true);
+        }
+        for (int cell : LandmarkTable.pickLandmarks(grid, 8)) {
+            assertFalse(grid.isWall(cell));
+        }
+    }
+
+    @Test
+    void savedTableIsLoadedBackWithTheGrid(@TempDir Path dir) throws Exception {
+        CompactGrid grid = new CompactGrid(40, 40);
+        MazeGenerator.generate(grid, MazeGenerator.Style.RANDOM, 5);
+        assertNull(LandmarkTable.cached(grid));
+        LandmarkTable table = LandmarkTable.of(grid);
+        assertSame(table, LandmarkTable.cached(grid));
+
+        Path file = dir.resolve("saved.grid");
+        GridFile.write(file, grid, Map.of(LandmarkTable.SECTION, LandmarkTable.cached(grid).toSection()));
+        GridFile reopened = GridFile.open(file);
+        LandmarkTable loaded = LandmarkTable.load(reopened);
+
+        assertArrayEquals(table.landmarks(), loaded.landmarks());
+        assertSame(loaded, LandmarkTable.of(reopened.grid()));
+    }
+}
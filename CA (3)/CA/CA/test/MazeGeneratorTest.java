@@ -0,0 +1,46 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class MazeGeneratorTest {
+
+    @ParameterizedTest
+    @EnumSource(MazeGenerator.Style.class)
+    void sameSeedGivesTheSameWallsInParallel(MazeGenerator.Style style) {
+        // Big enough that division chambers are forked, with rows that do not end on a word boundary.
+        int rows = 1001;
+        int cols = 777;
+        for (long seed = 1; seed <= 3; seed++) {
+            long[] sequential = MazeGenerator.generate(style, rows, cols, seed, false);
+            long[] parallel = MazeGenerator.generate(style, rows, cols, seed, true);
+            assertArrayEquals(sequential, parallel, style + " seed " + seed);
+        }
+        assertNotEquals(Arrays.hashCode(MazeGenerator.generate(style, rows, cols, 1, false)),
+                Arrays.hashCode(MazeGenerator.generate(style, rows, cols, 2, false)));
+    }
+
+    @Test
+    void largeDivisionMazeFitsInASmallStack() throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Runnable generate = () -> {
+            try {
+                MazeGenerator.generate(MazeGenerator.Style.RECURSIVE_DIVISION, 4000, 4000, 5, false);
+                MazeGenerator.generate(MazeGenerator.Style.RECURSIVE_DIVISION, 1_000_000, 12, 5, false);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        };
+        // Sequential division runs on the calling thread, so give it far less stack than the default.
+        Thread thread = new Thread(null, generate, "maze", 64 * 1024);
+        thread.start();
+        thread.join();
+        assertNull(failure.get());
+    }
+}
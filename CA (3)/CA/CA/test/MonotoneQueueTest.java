@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class MonotoneQueueTest {
+    private static final Algorithm[] MONOTONE = {Algorithm.DIJKSTRA_DIAL, Algorithm.DIJKSTRA_RADIX,
+            Algorithm.ASTAR_DIAL, Algorithm.ASTAR_RADIX, Algorithm.ASTAR_MANHATTAN};
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3})
+    void costsMatchHeapDijkstraOnTerrain(long seed) {
+        CompactGrid grid = new CompactGrid(60, 80);
+        MazeGenerator.generate(grid, MazeGenerator.Style.SCATTER, seed);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int cell = 0; cell < grid.size(); cell++) {
+            // Plenty of the largest cost, so keys run the full span of Dial's ring.
+            int cost = random.nextInt(4) == 0 ? CompactGrid.MAX_COST : 1 + random.nextInt(CompactGrid.MAX_COST);
+            grid.setCost(cell, cost);
+        }
+        assertCostsMatch(grid, random);
+    }
+
+    @Test
+    void costsMatchHeapDijkstraWhenEveryStepCostsTheMost() {
+        CompactGrid grid = new CompactGrid(40, 40);
+        MazeGenerator.generate(grid, MazeGenerator.Style.RECURSIVE_DIVISION, 7);
+        for (int cell = 0; cell < grid.size(); cell++) {
+            grid.setCost(cell, CompactGrid.MAX_COST);
+        }
+        assertCostsMatch(grid, new SplittableRandom(7));
+    }
+
+    @Test
+    void bucketRingWrapsAround() {
+        BucketQueue queue = new BucketQueue(8);
+        int key = 0;
+        // Keys keep moving up by up to the span, so buckets are reused many times over.
+        for (int round = 0; round < 100; round++) {
+            queue.add(round, key + 8);
+            queue.add(round + 1000, key + 3);
+            assertEquals(round + 1000, queue.poll());
+            key = queue.lastKey();
+            assertEquals(round, queue.poll());
+            key = queue.lastKey();
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void bucketQueueRejectsKeysBeyondItsSpan() {
+        BucketQueue queue = new BucketQueue(8);
+        queue.add(1, 10);
+        queue.poll();
+        assertThrows(IllegalArgumentException.class, () -> queue.add(2, 9));
+        assertThrows(IllegalArgumentException.class, () -> queue.add(2, 10 + queue.span() + 1));
+    }
+
+    @Test
+    void queuesPollInKeyOrder() {
+        SplittableRandom random = new SplittableRandom(11);
+        MonotoneQueue[] queues = {new BucketQueue(), new RadixHeap()};
+        for (MonotoneQueue queue : queues) {
+            PriorityQueue<Integer> expected = new PriorityQueue<>();
+            int last = 0;
+            for (int i = 0; i < 10_000; i++) {
+                if (queue.isEmpty() || random.nextInt(3) > 0) {
+                    int key = last + random.nextInt(CompactGrid.MAX_COST + 1);
+                    queue.add(key, key);
+                    expected.add(key);
+                } else {
+                    int cell = queue.poll();
+                    assertEquals(expected.poll(), cell, queue.getClass().getName());
+                    last = queue.lastKey();
+                    assertEquals(cell, last);
+                }
+            }
+            assertEquals(expected.size(), queue.size());
+        }
+    }
+
+    private static void assertCostsMatch(CompactGrid grid, SplittableRandom random) {
+        for (int i = 0; i < 10; i++) {
+            int start = random.nextInt(grid.size());
+            int end = random.nextInt(grid.size());
+            grid.setWall(start, false);
+            grid.setWall(end, false);
+            int expected = cost(Algorithm.DIJKSTRA, grid, start, end);
+            for (Algorithm algorithm : MONOTONE) {
+                assertEquals(expected, cost(algorithm, grid, start, end), algorithm + " from " + start + " to " + end);
+            }
+        }
+    }
+
+    /** Terrain cost of the path the search finds, paying every cell entered, or -1 if it finds none. */
+    private static int cost(Algorithm algorithm, CompactGrid grid, int start, int end) {
+        SearchContext context = new SearchContext(grid.size());
+        algorithm.search(grid, start, end, context, SearchListener.NONE);
+        int[] path = context.path(grid, end);
+        if (path.length == 0) return -1;
+        int cost = 0;
+        for (int i = 1; i < path.length; i++) {
+            cost += grid.cost(path[i]);
+        }
+        return cost;
+    }
+}
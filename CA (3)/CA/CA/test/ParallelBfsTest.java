@@ -0,0 +1,28 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class ParallelBfsTest {
+
+    @Test
+    void countedLevelsMatchReplayedCells() {
+        CompactGrid grid = new CompactGrid(300, 300);
+        MazeGenerator.generate(grid, MazeGenerator.Style.RANDOM, 7);
+        int start = grid.index(150, 150);
+        int end = grid.index(299, 299);
+        grid.setWall(start, false);
+        grid.setWall(end, false);
+        SearchContext context = new SearchContext(grid.size());
+        // Any listener but NONE has every cell replayed to it.
+        SearchListener watching = new SearchListener() { };
+
+        SearchStats counted = Algorithm.PARALLEL_BFS.measure(grid, start, end, context, SearchListener.NONE,
+                new MetricsRegistry());
+        SearchStats replayed = Algorithm.PARALLEL_BFS.measure(grid, start, end, context, watching, new MetricsRegistry());
+
+        assertEquals(replayed.expansions, counted.expansions);
+        assertEquals(replayed.pushes, counted.pushes);
+        assertEquals(replayed.maxOpenSize, counted.maxOpenSize);
+        assertEquals(replayed.pathLength, counted.pathLength);
+    }
+}
@@ -0,0 +1,89 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class PathServerTest {
+
+    @Test
+    void pipelinedAnswersComeBackInOrder() throws Exception {
+        CompactGrid grid = new CompactGrid(32, 32);
+        try (PathServer server = new PathServer(grid, 0);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            server.start();
+            int requests = 3 * PathServer.MAX_IN_FLIGHT;
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i < requests; i++) {
+                lines.append("{\"id\":").append(i).append(",\"start\":0,\"end\":").append(i % grid.size()).append("}\n");
+            }
+            socket.getOutputStream().write(lines.toString().getBytes(StandardCharsets.UTF_8));
+            socket.getOutputStream().flush();
+
+            BufferedReader in = reader(socket);
+            for (int i = 0; i < requests; i++) {
+                String answer = in.readLine();
+                assertTrue(answer.startsWith("{\"id\":" + i + ",\"found\":true"), answer);
+            }
+        }
+    }
+
+    @Test
+    void badRequestsGetErrors() throws Exception {
+        CompactGrid grid = new CompactGrid(8, 8);
+        try (PathServer server = new PathServer(grid, 0);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            server.start();
+            OutputStream out = socket.getOutputStream();
+            out.write("{\"id\":1,\"start\":0,\"end\":640}\n{\"id\":2,\"start\":0,\"end\":1,\"algorithm\":\"NOPE\"}\n"
+                    .getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            BufferedReader in = reader(socket);
+            assertEquals("{\"id\":1,\"error\":\"Cell outside the grid: end\"}", in.readLine());
+            assertEquals("{\"id\":2,\"error\":\"Unknown algorithm: NOPE\"}", in.readLine());
+        }
+    }
+
+    @Test
+    void closingReleasesConnectionsWithQueuedRequests() throws Exception {
+        CompactGrid grid = new CompactGrid(512, 512);
+        MazeGenerator.generate(grid, MazeGenerator.Style.RECURSIVE_DIVISION, 3);
+        PathServer server = new PathServer(grid, 0);
+        server.start();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i < PathServer.MAX_IN_FLIGHT; i++) {
+                lines.append("{\"id\":").append(i).append(",\"start\":[1,1],\"end\":[510,").append(1 + i)
+                        .append("],\"algorithm\":\"BFS\"}\n");
+            }
+            socket.getOutputStream().write(lines.toString().getBytes(StandardCharsets.UTF_8));
+            socket.getOutputStream().flush();
+            Thread.sleep(50);
+            server.close();
+
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (connectionThreadsAlive() && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertFalse(connectionThreadsAlive(), "connection threads still waiting after close");
+        }
+    }
+
+    private static boolean connectionThreadsAlive() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(thread -> thread.isAlive() && thread.getName().startsWith("path-connection-"));
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+}